@@ -0,0 +1,43 @@
+package com.midel.aot;
+
+import com.midel.entity.User;
+import com.midel.response.BatchItemResult;
+import com.midel.response.BatchResponse;
+import com.midel.response.DeleteResponse;
+import com.midel.response.ErrorResponse;
+import com.midel.response.ImportResponse;
+import com.midel.response.PaginationResponse;
+import com.midel.response.SearchResponse;
+import com.midel.response.UserResponse;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import java.sql.Connection;
+
+/**
+ * What a native image cannot find out on its own. Controllers return {@code ResponseEntity<?>}, so the response
+ * classes Jackson serializes are not inferred from their signatures, and {@link User} is also read from NDJSON
+ * imports. The statement counting data source wraps connections in a JDK proxy.
+ */
+public class ApplicationRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final Class<?>[] JSON_TYPES = {
+            User.class,
+            UserResponse.class,
+            PaginationResponse.class,
+            ErrorResponse.class,
+            BatchResponse.class,
+            BatchItemResult.class,
+            ImportResponse.class,
+            SearchResponse.class,
+            DeleteResponse.class
+    };
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), JSON_TYPES);
+
+        hints.proxies().registerJdkProxy(Connection.class);
+    }
+}
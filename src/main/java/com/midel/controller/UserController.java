@@ -4,18 +4,37 @@ import com.midel.entity.User;
 import com.midel.exception.AlreadyExistException;
 import com.midel.exception.InvalidArgumentException;
 import com.midel.exception.NotFoundException;
+import com.midel.exception.PreconditionFailedException;
 import com.midel.exception.ResponseException;
+import com.midel.exception.ServiceUnavailableException;
+import com.midel.limit.RateLimited;
+import com.midel.limit.RateLimited.Cost;
+import com.midel.response.BatchItemResult;
+import com.midel.response.BatchResponse;
+import com.midel.response.DeleteResponse;
 import com.midel.response.ErrorResponse;
+import com.midel.response.ImportResponse;
 import com.midel.response.UserResponse;
+import com.midel.service.CountMode;
+import com.midel.service.DataFormat;
+import com.midel.service.UserFilter;
 import com.midel.service.UserService;
+import com.midel.utils.ETags;
+import com.midel.utils.UserFields;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDate;
+import java.util.List;
 
 @RequiredArgsConstructor
 @RestController
@@ -31,37 +50,97 @@ public class UserController {
     private int port;
 
     @GetMapping("")
+    @RateLimited(Cost.LIST)
     public ResponseEntity<?> getUserList(
             @RequestParam(defaultValue = "0", required = false) int page,
             @RequestParam(defaultValue = "20", required = false) int size,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String lastname,
+            @RequestParam(required = false) String domain,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "exact", required = false) String count,
+            @RequestParam(required = false) String fields
+    ) {
+        UserFilter filter = UserFilter.of(from, to, lastname, domain);
+        try {
+            if (after != null) {
+                return userService.getUsersWithCursor(after, size, filter, UserFields.parse(fields));
+            }
+            return userService.getUsersWithPagination(page, size, filter, CountMode.from(count), UserFields.parse(fields));
+        } catch (InvalidArgumentException e) {
+            return new ErrorResponse(HttpStatus.BAD_REQUEST, e.getMessages()).getResponseEntity();
+        }
+    }
+
+    @GetMapping("/export")
+    @RateLimited(Cost.BULK)
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "ndjson", required = false) String format
+    ) {
+        // Validation errors are raised before the body is streamed and handled by GlobalExceptionHandler.
+        DataFormat dataFormat = DataFormat.from(format);
+
+        return ResponseEntity.ok()
+                .contentType(dataFormat.getMediaType())
+                .body(userService.exportUsers(from, to, dataFormat));
+    }
+
+    @GetMapping("/search")
+    @RateLimited(value = Cost.LIST, rowsParameter = "limit")
+    public ResponseEntity<?> searchUsers(
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "20", required = false) int limit
     ) {
         try {
-            return userService.getUsersWithPagination(page, size, from, to);
+            return userService.searchUsers(q, limit);
         } catch (InvalidArgumentException e) {
             return new ErrorResponse(HttpStatus.BAD_REQUEST, e.getMessages()).getResponseEntity();
         }
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> getUserById(@PathVariable Long id) {
+    public ResponseEntity<?> getUserById(
+            @PathVariable Long id,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
         User user;
+        List<String> selectedFields;
 
         try {
+            selectedFields = UserFields.parse(fields);
             user = userService.getUserById(id);
         } catch (NotFoundException e) {
             return new ErrorResponse(HttpStatus.NOT_FOUND, e.getMessages()).getResponseEntity();
+        } catch (InvalidArgumentException e) {
+            return new ErrorResponse(HttpStatus.BAD_REQUEST, e.getMessages()).getResponseEntity();
+        }
+
+        HttpHeaders headers = eTagHeaders(user);
+        if (ETags.matchesAny(ifNoneMatch, headers.getETag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+        }
+
+        String location = String.format("http://%s:%d/users/%d", address, port, id);
+
+        // A single user comes from the cache, so the fields are picked from it rather than queried.
+        if (selectedFields != null) {
+            return new UserResponse(HttpStatus.OK, UserFields.of(user, selectedFields), location)
+                    .getResponseEntity(headers);
         }
 
         return new UserResponse(
                 HttpStatus.OK,
                 user,
-                String.format("http://%s:%d/users/%d", address, port, id)
-        ).getResponseEntity();
+                location
+        ).getResponseEntity(headers);
     }
 
     @PostMapping("")
+    @RateLimited(Cost.WRITE)
     public ResponseEntity<?> createUser(@RequestBody User user) {
 
         User createdUser;
@@ -69,16 +148,47 @@ public class UserController {
             createdUser = userService.createUser(user);
         } catch (InvalidArgumentException | AlreadyExistException e) {
             return new ErrorResponse(HttpStatus.BAD_REQUEST, e.getMessages()).getResponseEntity();
+        } catch (ServiceUnavailableException e) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(HttpHeaders.RETRY_AFTER, "1");
+            return new ErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, e.getMessages()).getResponseEntity(headers);
         }
 
         return new UserResponse(
                 HttpStatus.CREATED,
                 createdUser,
                 String.format("http://%s:%d/users/%d", address, port, user.getId())
-        ).getResponseEntity();
+        ).getResponseEntity(eTagHeaders(createdUser));
+    }
+
+    @PostMapping("/batch")
+    @RateLimited(Cost.BULK)
+    public ResponseEntity<?> createUsers(@RequestBody List<User> users) {
+
+        List<BatchItemResult> results = userService.createUsers(users);
+
+        return new BatchResponse(HttpStatus.OK, results).getResponseEntity();
+    }
+
+    @PostMapping("/import")
+    @RateLimited(Cost.BULK)
+    public ResponseEntity<?> importUsers(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body
+    ) throws IOException {
+
+        ImportResponse report;
+        try {
+            report = userService.importUsers(body, DataFormat.fromMediaType(MediaType.parseMediaType(contentType)));
+        } catch (InvalidArgumentException e) {
+            return new ErrorResponse(HttpStatus.BAD_REQUEST, e.getMessages()).getResponseEntity();
+        }
+
+        return report.getResponseEntity();
     }
 
     @DeleteMapping("/{id}")
+    @RateLimited(Cost.WRITE)
     public ResponseEntity<?> deleteUser(@PathVariable Long id) {
 
         userService.deleteUser(id);
@@ -86,13 +196,38 @@ public class UserController {
         return ResponseEntity.ok(null);
     }
 
+    @DeleteMapping("")
+    @RateLimited(Cost.BULK)
+    public ResponseEntity<?> deleteUsers(
+            @RequestBody(required = false) List<Long> ids,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+
+        long deleted;
+        try {
+            deleted = userService.deleteUsers(ids, from, to);
+        } catch (InvalidArgumentException e) {
+            return new ErrorResponse(HttpStatus.BAD_REQUEST, e.getMessages()).getResponseEntity();
+        }
+
+        return new DeleteResponse(HttpStatus.OK, deleted).getResponseEntity();
+    }
+
     @PutMapping("/{id}")
-    public ResponseEntity<?> updateUser(@PathVariable Long id, @RequestBody User user) {
+    @RateLimited(Cost.WRITE)
+    public ResponseEntity<?> updateUser(
+            @PathVariable Long id,
+            @RequestBody User user,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
 
         try {
-            user = userService.updateUser(id, user);
+            user = userService.updateUser(id, user, ETags.expectedVersion(ifMatch));
         } catch (NotFoundException nfe) {
             return new ErrorResponse(HttpStatus.NOT_FOUND, nfe.getMessages()).getResponseEntity();
+        } catch (PreconditionFailedException pfe) {
+            return new ErrorResponse(HttpStatus.PRECONDITION_FAILED, pfe.getMessages()).getResponseEntity();
         } catch (InvalidArgumentException iae) {
             return new ErrorResponse(HttpStatus.BAD_REQUEST, iae.getMessages()).getResponseEntity();
         }
@@ -101,16 +236,23 @@ public class UserController {
                 HttpStatus.OK,
                 user,
                 String.format("http://%s:%d/users/%d", address, port, user.getId())
-        ).getResponseEntity();
+        ).getResponseEntity(eTagHeaders(user));
     }
 
     @PatchMapping("/{id}")
-    public ResponseEntity<?> partiallyUpdateUser(@PathVariable Long id, @RequestBody User user) {
+    @RateLimited(Cost.WRITE)
+    public ResponseEntity<?> partiallyUpdateUser(
+            @PathVariable Long id,
+            @RequestBody User user,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
 
         try {
-            user = userService.partiallyUpdateUser(id, user);
+            user = userService.partiallyUpdateUser(id, user, ETags.expectedVersion(ifMatch));
         } catch (NotFoundException nfe) {
             return new ErrorResponse(HttpStatus.NOT_FOUND, nfe.getMessages()).getResponseEntity();
+        } catch (PreconditionFailedException pfe) {
+            return new ErrorResponse(HttpStatus.PRECONDITION_FAILED, pfe.getMessages()).getResponseEntity();
         } catch (InvalidArgumentException iae) {
             return new ErrorResponse(HttpStatus.BAD_REQUEST, iae.getMessages()).getResponseEntity();
         }
@@ -119,6 +261,15 @@ public class UserController {
                 HttpStatus.OK,
                 user,
                 String.format("http://%s:%d/users/%d", address, port, user.getId())
-        ).getResponseEntity();
+        ).getResponseEntity(eTagHeaders(user));
+    }
+
+    private HttpHeaders eTagHeaders(User user) {
+        HttpHeaders headers = new HttpHeaders();
+        String eTag = ETags.of(user.getVersion());
+        if (eTag != null) {
+            headers.setETag(eTag);
+        }
+        return headers;
     }
 }
@@ -1,18 +1,26 @@
 package com.midel.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
+import com.midel.service.UserSearchIndexListener;
+import com.midel.utils.UserUtils;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDate;
 
-@AllArgsConstructor
 @NoArgsConstructor
 @Getter
 @Setter
 @ToString
 @Entity
+@EntityListeners(UserSearchIndexListener.class)
 @EqualsAndHashCode
-@Table(name = "_user")
+@Table(name = "_user", indexes = {
+        @Index(name = "idx_user_birth_date_id", columnList = "birth_date, id"),
+        @Index(name = "idx_user_lastname_key", columnList = "lastname_key"),
+        @Index(name = "idx_user_email_domain", columnList = "email_domain")
+})
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -36,4 +44,58 @@ public class User {
 
     @Column(name = "phone_number")
     private String phoneNumber;
+
+    /**
+     * Incremented on every update and exposed as the ETag instead of the body.
+     */
+    @JsonIgnore
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    /**
+     * Lower-cased lastname, indexed for case-insensitive prefix filters. Kept in sync by the entity callbacks
+     * below and by the JDBC writes in {@code UserRepositoryCustomImpl}.
+     */
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @Column(name = "lastname_key")
+    private String lastnameKey;
+
+    /**
+     * Lower-cased part of the email after {@code @}, indexed for domain filters. Maintained like {@link #lastnameKey}.
+     */
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @Column(name = "email_domain")
+    private String emailDomain;
+
+    public User(Long id, String email, String firstname, String lastname,
+                LocalDate birthdate, String address, String phoneNumber) {
+        this(id, email, firstname, lastname, birthdate, address, phoneNumber, null);
+    }
+
+    public User(Long id, String email, String firstname, String lastname,
+                LocalDate birthdate, String address, String phoneNumber, Long version) {
+        this.id = id;
+        this.email = email;
+        this.firstname = firstname;
+        this.lastname = lastname;
+        this.birthdate = birthdate;
+        this.address = address;
+        this.phoneNumber = phoneNumber;
+        this.version = version;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void updateSearchKeys() {
+        lastnameKey = UserUtils.lastnameKey(lastname);
+        emailDomain = UserUtils.emailDomain(email);
+    }
 }
\ No newline at end of file
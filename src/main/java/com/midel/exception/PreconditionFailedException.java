@@ -0,0 +1,18 @@
+package com.midel.exception;
+
+import java.util.List;
+
+public class PreconditionFailedException extends ResponseException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+
+    public PreconditionFailedException() {
+        super();
+    }
+
+    public PreconditionFailedException(List<String> messages) {
+        super(messages);
+    }
+}
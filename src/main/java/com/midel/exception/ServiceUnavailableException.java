@@ -0,0 +1,18 @@
+package com.midel.exception;
+
+import java.util.List;
+
+public class ServiceUnavailableException extends ResponseException {
+
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+
+    public ServiceUnavailableException() {
+        super();
+    }
+
+    public ServiceUnavailableException(List<String> messages) {
+        super(messages);
+    }
+}
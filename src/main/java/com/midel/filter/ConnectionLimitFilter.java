@@ -0,0 +1,135 @@
+package com.midel.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.midel.response.ErrorResponse;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Caps the number of requests handled at once when requests run on virtual threads.
+ * <p>
+ * A platform worker pool bounds concurrency by its size, virtual threads do not: thousands of them would all
+ * queue inside Hikari and fail with connection timeouts. Requests beyond the limit wait here instead, which
+ * costs nothing on a virtual thread, and are rejected with 503 once {@code acquireTimeout} has passed.
+ * <p>
+ * Only {@code /users} requests are limited, so actuator probes and scrapes still get through under load. A request
+ * that goes async, like {@code GET /users/export}, keeps its permit until the async processing has finished.
+ * <p>
+ * This is the outer bound, sized to the connection pool. {@link com.midel.limit.ConcurrencyLimitAspect} works
+ * inside it and narrows it further when the database slows down.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class ConnectionLimitFilter extends OncePerRequestFilter {
+
+    static final String LIMIT_EXCEEDED_MESSAGE = "The server is busy, please retry later.";
+
+    private final ObjectMapper objectMapper;
+    private final Semaphore permits;
+    private final Duration acquireTimeout;
+
+    public ConnectionLimitFilter(
+            ObjectMapper objectMapper,
+            @Value("${connection-limit.max-concurrent-requests}") int maxConcurrentRequests,
+            @Value("${connection-limit.acquire-timeout}") Duration acquireTimeout
+    ) {
+        this.objectMapper = objectMapper;
+        this.permits = new Semaphore(maxConcurrentRequests, true);
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = UrlPathHelper.defaultInstance.getPathWithinApplication(request);
+        return !path.equals("/users") && !path.startsWith("/users/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+
+        if (!acquired) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(
+                    response.getOutputStream(),
+                    new ErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, LIMIT_EXCEEDED_MESSAGE)
+            );
+            return;
+        }
+
+        PermitRelease release = new PermitRelease();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(release);
+            } else {
+                release.run();
+            }
+        }
+    }
+
+    /**
+     * Gives the permit back exactly once, whichever of the async callbacks fires first.
+     */
+    private class PermitRelease implements AsyncListener, Runnable {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        @Override
+        public void run() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.midel.filter;
+
+import com.midel.metrics.StatementCounter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Counts the SQL statements of each request, returns the count in the {@value #STATEMENT_COUNT_HEADER} header
+ * and records it as {@code http.server.requests.statements} per endpoint.
+ * <p>
+ * The header is added just before the body is written, so it covers all statements of the handler. Statements
+ * of async work such as the body of {@code GET /users/export} run on another thread and are not counted.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "statement-count.enabled", havingValue = "true")
+public class StatementCountFilter extends OncePerRequestFilter {
+
+    public static final String STATEMENT_COUNT_HEADER = "X-Statement-Count";
+
+    static final String METRIC_NAME = "http.server.requests.statements";
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        StatementCountResponse countingResponse = new StatementCountResponse(response);
+        StatementCounter.start();
+        try {
+            filterChain.doFilter(request, countingResponse);
+            countingResponse.addCountHeader();
+        } finally {
+            int count = StatementCounter.stop();
+
+            Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            DistributionSummary.builder(METRIC_NAME)
+                    .description("SQL statements per request")
+                    .baseUnit("statements")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri == null ? "UNKNOWN" : uri.toString())
+                    .register(meterRegistry)
+                    .record(count);
+        }
+    }
+
+    /**
+     * Adds the header once, before the response is committed.
+     */
+    private static class StatementCountResponse extends HttpServletResponseWrapper {
+
+        private boolean headerAdded;
+
+        StatementCountResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addCountHeader();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addCountHeader();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addCountHeader();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            addCountHeader();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            addCountHeader();
+            super.sendError(sc);
+        }
+
+        void addCountHeader() {
+            if (!headerAdded && !isCommitted()) {
+                setHeader(STATEMENT_COUNT_HEADER, String.valueOf(StatementCounter.current()));
+                headerAdded = true;
+            }
+        }
+    }
+}
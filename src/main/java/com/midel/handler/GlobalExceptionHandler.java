@@ -1,6 +1,9 @@
 package com.midel.handler;
 
+import com.midel.exception.InvalidArgumentException;
+import com.midel.exception.ServiceUnavailableException;
 import com.midel.response.ErrorResponse;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -8,6 +11,26 @@ import org.springframework.web.bind.annotation.*;
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
+    @ExceptionHandler(InvalidArgumentException.class)
+    public ResponseEntity<?> invalidArgument(InvalidArgumentException e) {
+        return new ErrorResponse(
+                    HttpStatus.BAD_REQUEST,
+                    e.getMessages()
+                )
+                .getResponseEntity();
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<?> serviceUnavailable(ServiceUnavailableException e) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "1");
+        return new ErrorResponse(
+                    HttpStatus.SERVICE_UNAVAILABLE,
+                    e.getMessages()
+                )
+                .getResponseEntity(headers);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<?> defaultEntry(Exception e) {
         return new ErrorResponse(
@@ -0,0 +1,102 @@
+package com.midel.limit;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrency limit that adapts to measured latency, AIMD style like TCP congestion control: every call finished
+ * within {@code latencyThreshold} raises the limit by {@code 1/limit}, about one per limit's worth of calls, while
+ * a slower or overloaded call multiplies it by {@code backoffRatio}. Calls that were in flight together saw the
+ * same overload, so the limit is lowered at most once per {@code latencyThreshold}.
+ * <p>
+ * Admission is a compare-and-set on the in-flight count and never blocks, a call beyond the limit is refused
+ * right away.
+ */
+public class AdaptiveLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong limitBits;
+    private final AtomicLong lastDecrease;
+
+    public AdaptiveLimit(int initialLimit, int minLimit, int maxLimit, Duration latencyThreshold, double backoffRatio) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("The backoff ratio must be between 0 and 1");
+        }
+
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.backoffRatio = backoffRatio;
+
+        this.limitBits = new AtomicLong(Double.doubleToRawLongBits(initialLimit));
+        this.lastDecrease = new AtomicLong(System.nanoTime() - latencyThresholdNanos);
+    }
+
+    /**
+     * @return {@code true} if the call may proceed, it must then be followed by {@link #release}
+     */
+    public boolean tryAcquire() {
+        int limit = getLimit();
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param latencyNanos how long the admitted call took
+     * @param overloaded   whether the call failed because something behind it was overloaded
+     */
+    public void release(long latencyNanos, boolean overloaded) {
+        int current = inFlight.getAndDecrement();
+
+        if (overloaded || latencyNanos > latencyThresholdNanos) {
+            decrease();
+        } else if (current * 2 >= getLimit()) {
+            // Only a limit that is actually used is known to be safe to raise.
+            increase();
+        }
+    }
+
+    public int getLimit() {
+        return (int) Double.longBitsToDouble(limitBits.get());
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void increase() {
+        limitBits.getAndUpdate(bits -> {
+            double limit = Double.longBitsToDouble(bits);
+            return Double.doubleToRawLongBits(Math.min(maxLimit, limit + 1 / limit));
+        });
+    }
+
+    private void decrease() {
+        long now = System.nanoTime();
+        long last = lastDecrease.get();
+        if (now - last < latencyThresholdNanos || !lastDecrease.compareAndSet(last, now)) {
+            return;
+        }
+
+        limitBits.getAndUpdate(bits -> {
+            double limit = Double.longBitsToDouble(bits);
+            return Double.doubleToRawLongBits(Math.max(minLimit, limit * backoffRatio));
+        });
+    }
+}
@@ -0,0 +1,106 @@
+package com.midel.limit;
+
+import com.midel.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Admission control in front of {@link com.midel.service.UserService}: at most {@link AdaptiveLimit#getLimit()}
+ * calls run at once, the rest fail immediately with {@link ServiceUnavailableException} instead of queueing for
+ * Tomcat threads and database connections until they time out. When the database slows down, the limit shrinks
+ * and the calls that are admitted keep their latency.
+ * <p>
+ * Bulk operations (import, export, batch create and delete by filter) are not limited: they always take longer
+ * than the latency threshold, and sampling them would shrink the limit for the cheap single-user calls. Runs outside the timer and
+ * error aspects, so rejected calls are only counted as {@value #REJECTED_METRIC_NAME}.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "adaptive-limit.enabled", havingValue = "true")
+public class ConcurrencyLimitAspect {
+
+    public static final String LIMIT_METRIC_NAME = "user.service.concurrency.limit";
+    public static final String IN_FLIGHT_METRIC_NAME = "user.service.concurrency.in.flight";
+    public static final String REJECTED_METRIC_NAME = "user.service.concurrency.rejected";
+
+    static final String LIMIT_EXCEEDED_MESSAGE = "The server is busy, please retry later.";
+
+    /**
+     * Set while the current thread works on behalf of calls that were already admitted.
+     */
+    private static final ThreadLocal<Boolean> ADMITTED = new ThreadLocal<>();
+
+    private final AdaptiveLimit limit;
+    private final Counter rejected;
+
+    public ConcurrencyLimitAspect(
+            MeterRegistry meterRegistry,
+            @Value("${adaptive-limit.initial-limit}") int initialLimit,
+            @Value("${adaptive-limit.min-limit}") int minLimit,
+            @Value("${adaptive-limit.max-limit}") int maxLimit,
+            @Value("${adaptive-limit.latency-threshold}") Duration latencyThreshold,
+            @Value("${adaptive-limit.backoff-ratio}") double backoffRatio
+    ) {
+        this.limit = new AdaptiveLimit(initialLimit, minLimit, maxLimit, latencyThreshold, backoffRatio);
+
+        Gauge.builder(LIMIT_METRIC_NAME, limit, AdaptiveLimit::getLimit).register(meterRegistry);
+        Gauge.builder(IN_FLIGHT_METRIC_NAME, limit, AdaptiveLimit::getInFlight).register(meterRegistry);
+        this.rejected = meterRegistry.counter(REJECTED_METRIC_NAME);
+    }
+
+    /**
+     * Runs the action without taking a permit, for work done on behalf of calls that already hold one, such as
+     * the group commit writer inserting the users of waiting requests.
+     */
+    public static <T> T admitted(Supplier<T> action) {
+        Boolean previous = ADMITTED.get();
+        ADMITTED.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            ADMITTED.set(previous);
+        }
+    }
+
+    @Around("execution(public * com.midel.service.UserService+.*(..))"
+            + " && !execution(* com.midel.service.UserService+.importUsers(..))"
+            + " && !execution(* com.midel.service.UserService+.exportUsers(..))"
+            + " && !execution(* com.midel.service.UserService+.createUsers(..))"
+            + " && !execution(* com.midel.service.UserService+.deleteUsers(..))")
+    public Object limit(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (ADMITTED.get() != null) {
+            return joinPoint.proceed();
+        }
+
+        if (!limit.tryAcquire()) {
+            rejected.increment();
+            throw new ServiceUnavailableException(LIMIT_EXCEEDED_MESSAGE);
+        }
+
+        boolean overloaded = false;
+        long start = System.nanoTime();
+        ADMITTED.set(Boolean.TRUE);
+        try {
+            return joinPoint.proceed();
+        } catch (ServiceUnavailableException e) {
+            overloaded = true;
+            throw e;
+        } finally {
+            ADMITTED.remove();
+            limit.release(System.nanoTime() - start, overloaded);
+        }
+    }
+}
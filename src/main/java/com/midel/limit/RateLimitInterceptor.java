@@ -0,0 +1,149 @@
+package com.midel.limit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.midel.response.ErrorResponse;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-client rate limit on the list and write endpoints of {@code /users}, so a few heavy clients cannot starve
+ * the others. Clients are told apart by the {@value #API_KEY_HEADER} header if it holds one of the configured
+ * {@code rate-limit.api-keys}, and by their address otherwise, so a client cannot get a fresh bucket by sending
+ * made-up keys. The address is {@link HttpServletRequest#getRemoteAddr()}, which is the proxy's unless
+ * {@code server.forward-headers-strategy} is set, so the limit is off by default.
+ * <p>
+ * Each request to a {@link RateLimited} handler takes tokens from the client's {@link RateLimiter} bucket. The cost
+ * follows from the handler the request was mapped to, not from its URL, so matrix parameters or an encoded path
+ * cannot make a request look cheaper than it is. Limited responses carry {@code RateLimit-Limit},
+ * {@code RateLimit-Remaining} and {@code RateLimit-Reset}; a rejected request gets 429 with {@code Retry-After}.
+ */
+@Component
+@ConditionalOnProperty(name = "rate-limit.enabled", havingValue = "true")
+public class RateLimitInterceptor implements HandlerInterceptor, WebMvcConfigurer {
+
+    public static final String API_KEY_HEADER = "X-Api-Key";
+
+    public static final String LIMIT_HEADER = "RateLimit-Limit";
+    public static final String REMAINING_HEADER = "RateLimit-Remaining";
+    public static final String RESET_HEADER = "RateLimit-Reset";
+
+    static final String RATE_LIMITED_MESSAGE = "Too many requests, please retry later.";
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
+    private final ObjectMapper objectMapper;
+    private final RateLimiter rateLimiter;
+    private final Set<String> apiKeys;
+    private final int listRowsPerToken;
+    private final int writeCost;
+    private final int bulkCost;
+
+    @Autowired
+    public RateLimitInterceptor(
+            ObjectMapper objectMapper,
+            @Value("${rate-limit.capacity}") int capacity,
+            @Value("${rate-limit.refill-per-second}") double refillPerSecond,
+            @Value("${rate-limit.max-clients}") long maxClients,
+            @Value("${rate-limit.list-rows-per-token}") int listRowsPerToken,
+            @Value("${rate-limit.write-cost}") int writeCost,
+            @Value("${rate-limit.bulk-cost}") int bulkCost,
+            @Value("${rate-limit.api-keys}") List<String> apiKeys
+    ) {
+        this(objectMapper, new RateLimiter(capacity, refillPerSecond, maxClients), listRowsPerToken, writeCost, bulkCost,
+                Set.copyOf(apiKeys));
+    }
+
+    RateLimitInterceptor(ObjectMapper objectMapper, RateLimiter rateLimiter, int listRowsPerToken, int writeCost,
+                         int bulkCost, Set<String> apiKeys) {
+        this.objectMapper = objectMapper;
+        this.rateLimiter = rateLimiter;
+        this.apiKeys = apiKeys;
+        this.listRowsPerToken = listRowsPerToken;
+        this.writeCost = writeCost;
+        this.bulkCost = bulkCost;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(this);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+
+        // An async request, like an export, was charged when it was first dispatched.
+        if (request.getDispatcherType() == DispatcherType.ASYNC || !(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        RateLimited rateLimited = handlerMethod.getMethodAnnotation(RateLimited.class);
+        if (rateLimited == null) {
+            return true;
+        }
+
+        RateLimiter.Decision decision = rateLimiter.tryAcquire(clientId(request), cost(rateLimited, request));
+
+        response.setHeader(LIMIT_HEADER, String.valueOf(rateLimiter.getCapacity()));
+        response.setHeader(REMAINING_HEADER, String.valueOf(decision.remaining()));
+        response.setHeader(RESET_HEADER, String.valueOf(seconds(decision.resetNanos())));
+
+        if (!decision.allowed()) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, seconds(decision.retryAfterNanos()))));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(
+                    response.getOutputStream(),
+                    new ErrorResponse(HttpStatus.TOO_MANY_REQUESTS, RATE_LIMITED_MESSAGE)
+            );
+            return false;
+        }
+
+        return true;
+    }
+
+    private int cost(RateLimited rateLimited, HttpServletRequest request) {
+        return switch (rateLimited.value()) {
+            case LIST -> listCost(request.getParameter(rateLimited.rowsParameter()));
+            case WRITE -> writeCost;
+            case BULK -> bulkCost;
+        };
+    }
+
+    private int listCost(String size) {
+        int rows = DEFAULT_PAGE_SIZE;
+        try {
+            if (size != null) {
+                rows = Integer.parseInt(size.trim());
+            }
+        } catch (NumberFormatException e) {
+            // Rejected by the controller, charged like a default page.
+        }
+        return Math.max(1, (int) Math.ceil((double) rows / listRowsPerToken));
+    }
+
+    private String clientId(HttpServletRequest request) {
+        String apiKey = request.getHeader(API_KEY_HEADER);
+        return apiKey != null && apiKeys.contains(apiKey) ? "key:" + apiKey : "ip:" + request.getRemoteAddr();
+    }
+
+    private static long seconds(long nanos) {
+        return (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+    }
+}
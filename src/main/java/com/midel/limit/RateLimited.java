@@ -0,0 +1,39 @@
+package com.midel.limit;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a handler method whose requests take tokens from the client's bucket, see {@link RateLimitInterceptor}.
+ * Handlers without it are not limited.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RateLimited {
+
+    Cost value();
+
+    /**
+     * For {@link Cost#LIST}: the request parameter holding the number of rows asked for.
+     */
+    String rowsParameter() default "size";
+
+    enum Cost {
+        /**
+         * One token per {@code rate-limit.list-rows-per-token} requested rows.
+         */
+        LIST,
+        /**
+         * {@code rate-limit.write-cost} tokens.
+         */
+        WRITE,
+        /**
+         * {@code rate-limit.bulk-cost} tokens.
+         */
+        BULK
+    }
+}
@@ -0,0 +1,86 @@
+package com.midel.limit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket per client: up to {@code capacity} tokens, refilled at {@code refillPerSecond}.
+ * <p>
+ * Each bucket is a single {@link AtomicLong} holding the time at which it is full again, the generic cell rate
+ * algorithm form of a token bucket, so taking tokens is one compare-and-set and needs no lock or refill task.
+ * Buckets live in a Caffeine cache bounded to {@code maxClients}. A bucket unused long enough to have refilled
+ * completely is evicted, since a new one starts full anyway.
+ */
+public class RateLimiter {
+
+    /**
+     * @param allowed        whether the tokens were taken
+     * @param remaining      tokens left in the bucket
+     * @param resetNanos     time until the bucket is full again
+     * @param retryAfterNanos time until enough tokens are available, {@code 0} if allowed
+     */
+    public record Decision(boolean allowed, long remaining, long resetNanos, long retryAfterNanos) {
+    }
+
+    private final int capacity;
+    private final long nanosPerToken;
+    private final long capacityNanos;
+    private final Ticker ticker;
+    private final Cache<String, AtomicLong> buckets;
+
+    public RateLimiter(int capacity, double refillPerSecond, long maxClients) {
+        this(capacity, refillPerSecond, maxClients, Ticker.systemTicker());
+    }
+
+    RateLimiter(int capacity, double refillPerSecond, long maxClients, Ticker ticker) {
+        if (capacity < 1 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("The capacity and refill rate must be positive");
+        }
+
+        this.capacity = capacity;
+        this.nanosPerToken = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond));
+        this.capacityNanos = capacity * nanosPerToken;
+        this.ticker = ticker;
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofNanos(capacityNanos))
+                .maximumSize(maxClients)
+                .ticker(ticker)
+                .build();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Takes {@code cost} tokens from the client's bucket. A cost above the capacity is capped, so such a request
+     * needs a full bucket instead of never passing.
+     */
+    public Decision tryAcquire(String client, int cost) {
+        long costNanos = Math.min(cost, capacity) * nanosPerToken;
+        AtomicLong fullAt = buckets.get(client, key -> new AtomicLong(ticker.read()));
+
+        while (true) {
+            long now = ticker.read();
+            long current = fullAt.get();
+            long missingNanos = Math.max(current - now, 0);
+            long nextMissingNanos = missingNanos + costNanos;
+
+            if (nextMissingNanos > capacityNanos) {
+                return new Decision(false, remaining(missingNanos), missingNanos, nextMissingNanos - capacityNanos);
+            }
+            if (fullAt.compareAndSet(current, now + nextMissingNanos)) {
+                return new Decision(true, remaining(nextMissingNanos), nextMissingNanos, 0);
+            }
+        }
+    }
+
+    private long remaining(long missingNanos) {
+        return (capacityNanos - missingNanos) / nanosPerToken;
+    }
+}
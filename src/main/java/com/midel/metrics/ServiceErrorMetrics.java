@@ -0,0 +1,37 @@
+package com.midel.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.annotation.AfterThrowing;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts the exceptions thrown by {@link com.midel.service.UserService} as {@code user.service.errors}, tagged
+ * with the method and the exception type ({@code NotFoundException}, {@code InvalidArgumentException},
+ * {@code AlreadyExistException}, ...).
+ * <p>
+ * The controller turns these exceptions into error responses, so {@code http.server.requests} only sees the
+ * status code.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class ServiceErrorMetrics {
+
+    static final String METRIC_NAME = "user.service.errors";
+
+    private final MeterRegistry meterRegistry;
+
+    @AfterThrowing(pointcut = "execution(public * com.midel.service.UserService+.*(..))", throwing = "exception")
+    public void count(JoinPoint joinPoint, Throwable exception) {
+        Counter.builder(METRIC_NAME)
+                .description("Exceptions thrown by the user service")
+                .tag("method", joinPoint.getSignature().getName())
+                .tag("exception", exception.getClass().getSimpleName())
+                .register(meterRegistry)
+                .increment();
+    }
+}
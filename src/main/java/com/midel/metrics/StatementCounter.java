@@ -0,0 +1,46 @@
+package com.midel.metrics;
+
+/**
+ * Counts the JDBC statements prepared by the current thread between {@link #start()} and {@link #stop()}.
+ * <p>
+ * Statements are counted by {@link StatementCountingDataSource}, so both Hibernate and {@code JdbcTemplate} are
+ * covered. A JDBC batch is one statement however many rows it holds. Statements prepared while no count is
+ * running, e.g. at startup, are ignored.
+ */
+public final class StatementCounter {
+
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    private StatementCounter() {
+    }
+
+    public static void start() {
+        COUNT.set(new int[1]);
+    }
+
+    /**
+     * @return statements prepared since {@link #start()}, {@code 0} if no count is running
+     */
+    public static int current() {
+        int[] count = COUNT.get();
+        return count == null ? 0 : count[0];
+    }
+
+    /**
+     * Ends the count of the current thread.
+     *
+     * @return statements prepared since {@link #start()}
+     */
+    public static int stop() {
+        int count = current();
+        COUNT.remove();
+        return count;
+    }
+
+    static void increment() {
+        int[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+    }
+}
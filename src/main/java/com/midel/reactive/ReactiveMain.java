@@ -0,0 +1,28 @@
+package com.midel.reactive;
+
+import com.midel.handler.GlobalExceptionHandler;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+/**
+ * Entry point of the reactive variant of the API: WebFlux on Netty over R2DBC ({@code spring.r2dbc.*}), with no
+ * JDBC pool and no request thread pool to size. It expects the schema the servlet application creates.
+ * <p>
+ * The servlet application scans this package too, the condition keeps it and its beans out of there.
+ */
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@SpringBootApplication(
+        scanBasePackageClasses = {ReactiveMain.class, GlobalExceptionHandler.class},
+        exclude = {DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class}
+)
+public class ReactiveMain {
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(ReactiveMain.class)
+                .web(WebApplicationType.REACTIVE)
+                .run(args);
+    }
+}
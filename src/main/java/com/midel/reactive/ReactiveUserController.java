@@ -0,0 +1,188 @@
+package com.midel.reactive;
+
+import com.midel.entity.User;
+import com.midel.exception.AlreadyExistException;
+import com.midel.exception.InvalidArgumentException;
+import com.midel.exception.NotFoundException;
+import com.midel.exception.PreconditionFailedException;
+import com.midel.response.BatchResponse;
+import com.midel.response.ErrorResponse;
+import com.midel.response.PaginationResponse;
+import com.midel.response.UserResponse;
+import com.midel.service.UserFilter;
+import com.midel.utils.ETags;
+import com.midel.utils.UserUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * The routes of {@link com.midel.controller.UserController} that map onto plain queries: paged listing with a
+ * birthdate range, single user, create, batch create, update, partial update and delete. Responses use the same
+ * envelopes and status codes; errors not handled here go to {@link com.midel.handler.GlobalExceptionHandler}.
+ */
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/users")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserController {
+
+    private final ReactiveUserService userService;
+
+    @Value("${server.address}")
+    private String address;
+
+    @Value("${server.port}")
+    private int port;
+
+    @GetMapping("")
+    public Mono<ResponseEntity<?>> getUserList(
+            @RequestParam(defaultValue = "0", required = false) int page,
+            @RequestParam(defaultValue = "20", required = false) int size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        try {
+            UserUtils.validateDateRange(from, to);
+            if (page < 0 || size < 1) {
+                throw new InvalidArgumentException("Page index must not be less than zero and page size must not be less than one");
+            }
+        } catch (InvalidArgumentException e) {
+            return Mono.just(new ErrorResponse(HttpStatus.BAD_REQUEST, e.getMessages()).getResponseEntity());
+        }
+
+        StringBuilder link = new StringBuilder(String.format("http://%s:%d/users?size=%d", address, port, size));
+        UserFilter.birthdate(from, to).appendQueryParameters(link);
+        link.append("&page=");
+
+        return Mono.zip(userService.getUsers(page, size, from, to).collectList(), userService.countUsers(from, to))
+                .map(result -> {
+                    List<User> data = result.getT1();
+                    long total = result.getT2();
+
+                    String nextPage = (long) (page + 1) * size < total ? link + String.valueOf(page + 1) : null;
+                    String prevPage = page > 0 ? link + String.valueOf(Math.max(page - 1, 0)) : null;
+
+                    return new PaginationResponse(HttpStatus.OK, page, size, total, data, nextPage, prevPage)
+                            .getResponseEntity();
+                });
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<?>> getUserById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        return userService.getUserById(id)
+                .<ResponseEntity<?>>map(user -> {
+                    HttpHeaders headers = eTagHeaders(user);
+                    if (ETags.matchesAny(ifNoneMatch, headers.getETag())) {
+                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+                    }
+                    return new UserResponse(HttpStatus.OK, user, location(id)).getResponseEntity(headers);
+                })
+                .onErrorResume(NotFoundException.class,
+                        e -> Mono.just(new ErrorResponse(HttpStatus.NOT_FOUND, e.getMessages()).getResponseEntity()));
+    }
+
+    @PostMapping("")
+    public Mono<ResponseEntity<?>> createUser(@RequestBody User user) {
+        return userService.createUser(user)
+                .<ResponseEntity<?>>map(created -> new UserResponse(
+                        HttpStatus.CREATED,
+                        created,
+                        location(created.getId())
+                ).getResponseEntity(eTagHeaders(created)))
+                .onErrorResume(InvalidArgumentException.class,
+                        e -> Mono.just(new ErrorResponse(HttpStatus.BAD_REQUEST, e.getMessages()).getResponseEntity()))
+                .onErrorResume(AlreadyExistException.class,
+                        e -> Mono.just(new ErrorResponse(HttpStatus.BAD_REQUEST, e.getMessages()).getResponseEntity()));
+    }
+
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<?>> createUsers(@RequestBody List<User> users) {
+        return userService.createUsers(users)
+                .map(results -> new BatchResponse(HttpStatus.OK, results).getResponseEntity());
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<?>> updateUser(
+            @PathVariable Long id,
+            @RequestBody User user,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        Long expectedVersion;
+        try {
+            expectedVersion = ETags.expectedVersion(ifMatch);
+        } catch (PreconditionFailedException | InvalidArgumentException e) {
+            return updateErrorResponse(e);
+        }
+
+        return userService.updateUser(id, user, expectedVersion)
+                .map(this::updatedResponse)
+                .onErrorResume(ReactiveUserController::updateErrorResponse);
+    }
+
+    @PatchMapping("/{id}")
+    public Mono<ResponseEntity<?>> partiallyUpdateUser(
+            @PathVariable Long id,
+            @RequestBody User user,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        Long expectedVersion;
+        try {
+            expectedVersion = ETags.expectedVersion(ifMatch);
+        } catch (PreconditionFailedException | InvalidArgumentException e) {
+            return updateErrorResponse(e);
+        }
+
+        return userService.partiallyUpdateUser(id, user, expectedVersion)
+                .map(this::updatedResponse)
+                .onErrorResume(ReactiveUserController::updateErrorResponse);
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<?>> deleteUser(@PathVariable Long id) {
+        return userService.deleteUser(id)
+                .then(Mono.just(ResponseEntity.ok(null)));
+    }
+
+    private ResponseEntity<?> updatedResponse(User user) {
+        return new UserResponse(HttpStatus.OK, user, location(user.getId())).getResponseEntity(eTagHeaders(user));
+    }
+
+    private static Mono<ResponseEntity<?>> updateErrorResponse(Throwable e) {
+        if (e instanceof NotFoundException nfe) {
+            return Mono.just(new ErrorResponse(HttpStatus.NOT_FOUND, nfe.getMessages()).getResponseEntity());
+        }
+        if (e instanceof PreconditionFailedException pfe) {
+            return Mono.just(new ErrorResponse(HttpStatus.PRECONDITION_FAILED, pfe.getMessages()).getResponseEntity());
+        }
+        if (e instanceof InvalidArgumentException iae) {
+            return Mono.just(new ErrorResponse(HttpStatus.BAD_REQUEST, iae.getMessages()).getResponseEntity());
+        }
+        return Mono.error(e);
+    }
+
+    private String location(Long id) {
+        return String.format("http://%s:%d/users/%d", address, port, id);
+    }
+
+    private static HttpHeaders eTagHeaders(User user) {
+        HttpHeaders headers = new HttpHeaders();
+        String eTag = ETags.of(user.getVersion());
+        if (eTag != null) {
+            headers.setETag(eTag);
+        }
+        return headers;
+    }
+}
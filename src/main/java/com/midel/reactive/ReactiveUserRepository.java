@@ -0,0 +1,197 @@
+package com.midel.reactive;
+
+import com.midel.entity.User;
+import com.midel.utils.UserUtils;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Non-blocking access to {@code _user} through R2DBC. Statements are written by hand like in
+ * {@link com.midel.repository.UserRepositoryCustomImpl}, since the JPA mapping of {@link User} does not apply here.
+ */
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserRepository {
+
+    private static final String SELECT_COLUMNS =
+            "SELECT id, email, firstname, lastname, birth_date, address, phone_number, version FROM _user";
+
+    private static final String INSERT_QUERY = "INSERT INTO _user "
+            + "(email, firstname, lastname, birth_date, address, phone_number, version, lastname_key, email_domain) "
+            + "VALUES (:email, :firstname, :lastname, :birthdate, :address, :phoneNumber, 0, :lastnameKey, :emailDomain)";
+
+    private static final Map<String, String> COLUMNS = Map.of(
+            "email", "email",
+            "firstname", "firstname",
+            "lastname", "lastname",
+            "birthdate", "birth_date",
+            "address", "address",
+            "phoneNumber", "phone_number"
+    );
+
+    private final DatabaseClient databaseClient;
+
+    public Mono<User> findById(Long id) {
+        return databaseClient.sql(SELECT_COLUMNS + " WHERE id = :id")
+                .bind("id", id)
+                .map(ReactiveUserRepository::toUser)
+                .one();
+    }
+
+    /**
+     * @param from inclusive, only applied together with {@code to}
+     * @param to   exclusive
+     */
+    public Flux<User> findPage(LocalDate from, LocalDate to, long offset, int limit) {
+        boolean byBirthdate = from != null && to != null;
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(SELECT_COLUMNS
+                        + (byBirthdate ? " WHERE birth_date >= :from AND birth_date < :to" : "")
+                        + " ORDER BY id LIMIT :limit OFFSET :offset")
+                .bind("limit", limit)
+                .bind("offset", offset);
+
+        if (byBirthdate) {
+            spec = spec.bind("from", from).bind("to", to);
+        }
+
+        return spec.map(ReactiveUserRepository::toUser).all();
+    }
+
+    public Mono<Long> count(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            return databaseClient.sql("SELECT COUNT(*) FROM _user")
+                    .map(row -> row.get(0, Long.class))
+                    .one();
+        }
+
+        return databaseClient.sql("SELECT COUNT(*) FROM _user WHERE birth_date >= :from AND birth_date < :to")
+                .bind("from", from)
+                .bind("to", to)
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    public Mono<Boolean> existsByEmail(String email) {
+        return databaseClient.sql("SELECT 1 FROM _user WHERE email = :email")
+                .bind("email", email)
+                .map(row -> Boolean.TRUE)
+                .first()
+                .hasElement();
+    }
+
+    public Mono<Boolean> existsByEmailAndIdNot(String email, Long id) {
+        return databaseClient.sql("SELECT 1 FROM _user WHERE email = :email AND id <> :id")
+                .bind("email", email)
+                .bind("id", id)
+                .map(row -> Boolean.TRUE)
+                .first()
+                .hasElement();
+    }
+
+    /**
+     * @return the user with its generated id and initial version
+     */
+    public Mono<User> insert(User user) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(INSERT_QUERY);
+        spec = bind(spec, "email", user.getEmail(), String.class);
+        spec = bind(spec, "firstname", user.getFirstname(), String.class);
+        spec = bind(spec, "lastname", user.getLastname(), String.class);
+        spec = bind(spec, "birthdate", user.getBirthdate(), LocalDate.class);
+        spec = bind(spec, "address", user.getAddress(), String.class);
+        spec = bind(spec, "phoneNumber", user.getPhoneNumber(), String.class);
+        spec = bind(spec, "lastnameKey", UserUtils.lastnameKey(user.getLastname()), String.class);
+        spec = bind(spec, "emailDomain", UserUtils.emailDomain(user.getEmail()), String.class);
+
+        return spec.filter(statement -> statement.returnGeneratedValues("id"))
+                .map(row -> row.get("id", Long.class))
+                .one()
+                .map(id -> {
+                    user.setId(id);
+                    user.setVersion(0L);
+                    return user;
+                });
+    }
+
+    public Mono<Boolean> existsById(Long id) {
+        return databaseClient.sql("SELECT 1 FROM _user WHERE id = :id")
+                .bind("id", id)
+                .map(row -> Boolean.TRUE)
+                .first()
+                .hasElement();
+    }
+
+    /**
+     * Writes only the given properties, keyed by {@link User} property name, and bumps the version.
+     *
+     * @param expectedVersion the version the user must still have, {@code null} to update any version
+     * @return the updated user, empty if there is no user with this id and version
+     */
+    public Mono<User> updateProperties(Long id, Map<String, Object> properties, Long expectedVersion) {
+        Map<String, Object> columns = new LinkedHashMap<>();
+        properties.forEach((property, value) -> columns.put(COLUMNS.get(property), value));
+
+        if (properties.containsKey("lastname")) {
+            columns.put("lastname_key", UserUtils.lastnameKey((String) properties.get("lastname")));
+        }
+        if (properties.containsKey("email")) {
+            columns.put("email_domain", UserUtils.emailDomain((String) properties.get("email")));
+        }
+
+        StringBuilder sql = new StringBuilder("UPDATE _user SET ");
+        columns.keySet().forEach(column -> sql.append(column).append(" = :").append(column).append(", "));
+        sql.append("version = version + 1 WHERE id = :id");
+        if (expectedVersion != null) {
+            sql.append(" AND version = :expectedVersion");
+        }
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString()).bind("id", id);
+        if (expectedVersion != null) {
+            spec = spec.bind("expectedVersion", expectedVersion);
+        }
+        for (Map.Entry<String, Object> column : columns.entrySet()) {
+            Class<?> type = "birth_date".equals(column.getKey()) ? LocalDate.class : String.class;
+            spec = bind(spec, column.getKey(), column.getValue(), type);
+        }
+
+        return spec.fetch()
+                .rowsUpdated()
+                .flatMap(updated -> updated == 0 ? Mono.empty() : findById(id));
+    }
+
+    public Mono<Long> deleteById(Long id) {
+        return databaseClient.sql("DELETE FROM _user WHERE id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bind(
+            DatabaseClient.GenericExecuteSpec spec, String name, Object value, Class<?> type
+    ) {
+        return value == null ? spec.bindNull(name, type) : spec.bind(name, value);
+    }
+
+    private static User toUser(Readable row) {
+        return new User(
+                row.get("id", Long.class),
+                row.get("email", String.class),
+                row.get("firstname", String.class),
+                row.get("lastname", String.class),
+                row.get("birth_date", LocalDate.class),
+                row.get("address", String.class),
+                row.get("phone_number", String.class),
+                row.get("version", Long.class)
+        );
+    }
+}
@@ -0,0 +1,159 @@
+package com.midel.reactive;
+
+import com.midel.entity.User;
+import com.midel.exception.AlreadyExistException;
+import com.midel.exception.InvalidArgumentException;
+import com.midel.exception.NotFoundException;
+import com.midel.exception.PreconditionFailedException;
+import com.midel.response.BatchItemResult;
+import com.midel.service.UserServiceImpl;
+import com.midel.utils.ETags;
+import com.midel.utils.UserUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reactive counterpart of {@link UserServiceImpl}: the same validation rules and messages, errors are signalled
+ * with the same exceptions.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserService {
+
+    private final ReactiveUserRepository userRepository;
+
+    @Value("${allowed-age}")
+    private int allowedAge;
+
+    public Mono<User> getUserById(Long id) {
+        return userRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("User with id = " + id + " not found.")));
+    }
+
+    /**
+     * @param from inclusive, only applied together with {@code to}
+     * @param to   exclusive
+     */
+    public Flux<User> getUsers(int page, int size, LocalDate from, LocalDate to) {
+        return userRepository.findPage(from, to, (long) page * size, size);
+    }
+
+    public Mono<Long> countUsers(LocalDate from, LocalDate to) {
+        return userRepository.count(from, to);
+    }
+
+    public Mono<User> createUser(User user) {
+        List<String> messages = UserUtils.validateUser(user, false, allowedAge);
+        if (!messages.isEmpty()) {
+            return Mono.error(new InvalidArgumentException(messages));
+        }
+
+        return userRepository.existsByEmail(user.getEmail())
+                .flatMap(exists -> exists
+                        ? Mono.error(new AlreadyExistException(UserServiceImpl.EMAIL_EXISTS_MESSAGE))
+                        : userRepository.insert(user))
+                .onErrorMap(DataIntegrityViolationException.class,
+                        e -> new AlreadyExistException(UserServiceImpl.EMAIL_EXISTS_MESSAGE));
+    }
+
+    /**
+     * Inserts the users one after another; each one succeeds or fails on its own, like
+     * {@link UserServiceImpl#createUsers(List)}.
+     */
+    public Mono<List<BatchItemResult>> createUsers(List<User> users) {
+        Set<String> requestEmails = new HashSet<>();
+
+        return Flux.range(0, users.size())
+                .concatMap(i -> {
+                    User user = users.get(i);
+                    List<String> messages = UserUtils.validateUser(user, false, allowedAge);
+
+                    if (!messages.isEmpty()) {
+                        return Mono.just(BatchItemResult.failed(i, messages));
+                    }
+                    if (!requestEmails.add(user.getEmail())) {
+                        return Mono.just(BatchItemResult.failed(i, UserServiceImpl.EMAIL_EXISTS_MESSAGE));
+                    }
+
+                    return createUser(user)
+                            .map(created -> BatchItemResult.created(i, created.getId()))
+                            .onErrorResume(AlreadyExistException.class,
+                                    e -> Mono.just(BatchItemResult.failed(i, UserServiceImpl.EMAIL_EXISTS_MESSAGE)));
+                })
+                .collectList();
+    }
+
+    public Mono<User> updateUser(Long id, User user, Long expectedVersion) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("email", user.getEmail());
+        properties.put("firstname", user.getFirstname());
+        properties.put("lastname", user.getLastname());
+        properties.put("birthdate", user.getBirthdate());
+        properties.put("address", user.getAddress());
+        properties.put("phoneNumber", user.getPhoneNumber());
+
+        return update(id, UserUtils.validateUser(user, false, allowedAge), properties, expectedVersion);
+    }
+
+    public Mono<User> partiallyUpdateUser(Long id, User user, Long expectedVersion) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        if (user.getEmail() != null) {
+            properties.put("email", user.getEmail());
+        }
+        if (user.getFirstname() != null) {
+            properties.put("firstname", user.getFirstname());
+        }
+        if (user.getLastname() != null) {
+            properties.put("lastname", user.getLastname());
+        }
+        if (user.getBirthdate() != null) {
+            properties.put("birthdate", user.getBirthdate());
+        }
+        if (user.getAddress() != null) {
+            properties.put("address", user.getAddress());
+        }
+        if (user.getPhoneNumber() != null) {
+            properties.put("phoneNumber", user.getPhoneNumber());
+        }
+
+        return update(id, UserUtils.validateUser(user, true, allowedAge), properties, expectedVersion);
+    }
+
+    public Mono<Void> deleteUser(Long id) {
+        return userRepository.deleteById(id).then();
+    }
+
+    private Mono<User> update(Long id, List<String> messages, Map<String, Object> properties, Long expectedVersion) {
+        if (!messages.isEmpty()) {
+            return Mono.error(new InvalidArgumentException(messages));
+        }
+
+        String email = (String) properties.get("email");
+        Mono<Boolean> emailTaken = email == null ? Mono.just(false) : userRepository.existsByEmailAndIdNot(email, id);
+
+        return emailTaken
+                .flatMap(taken -> taken
+                        ? Mono.error(new AlreadyExistException(UserServiceImpl.EMAIL_EXISTS_MESSAGE))
+                        : userRepository.updateProperties(id, properties, expectedVersion))
+                .switchIfEmpty(Mono.defer(() -> expectedVersion == null
+                        ? Mono.error(new NotFoundException("User with id = " + id + " does not exist"))
+                        : userRepository.existsById(id).flatMap(exists -> Mono.error(exists
+                                ? new PreconditionFailedException(ETags.MISMATCH_MESSAGE)
+                                : new NotFoundException("User with id = " + id + " does not exist")))))
+                .onErrorMap(DataIntegrityViolationException.class,
+                        e -> new AlreadyExistException(UserServiceImpl.EMAIL_EXISTS_MESSAGE));
+    }
+}
@@ -0,0 +1,96 @@
+package com.midel.repository;
+
+import com.midel.entity.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.stream.Stream;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * Reads one page without the {@code COUNT(*)} query that {@code findAll(spec, pageable)} runs.
+     * Fetches one extra row to find out whether a next page exists.
+     */
+    Slice<User> findSlice(Specification<User> specification, Pageable pageable);
+
+    /**
+     * Like {@link #findSlice(Specification, Pageable)}, but selects only the given properties instead of
+     * loading managed entities. Each row maps the property names to their values in the order given.
+     */
+    Slice<Map<String, Object>> findSlice(Specification<User> specification, Pageable pageable, List<String> fields);
+
+    /**
+     * Ids of matching users greater than {@code afterId} in ascending order, at most {@code limit} of them.
+     * Used to walk a filter in bounded chunks.
+     */
+    List<Long> findIdsAfter(Specification<User> specification, long afterId, int limit);
+
+    /**
+     * Row count of the whole table taken from the database planner statistics.
+     * Empty if the database does not keep such statistics or they have not been collected yet.
+     */
+    OptionalLong estimateCount();
+
+    /**
+     * Streams matching users ordered by id, reading {@code fetchSize} rows per database round-trip.
+     * Rows are detached as they are read so the persistence context does not grow with the result.
+     * Must be consumed inside a transaction and closed afterwards.
+     */
+    Stream<User> streamAll(Specification<User> specification, int fetchSize);
+
+    /**
+     * Version of a user that has not been updated yet.
+     */
+    long INITIAL_VERSION = 0;
+
+    /**
+     * Inserts all users with a single JDBC batch and returns the generated ids in input order.
+     * Every row starts at {@link #INITIAL_VERSION}.
+     * Runs in one transaction, so a constraint violation leaves none of the rows behind.
+     */
+    @Transactional
+    List<Long> insertAll(List<User> users);
+
+    /**
+     * Updates only the given properties of one user without loading it first and increments its version.
+     * On PostgreSQL this is a single {@code UPDATE ... RETURNING} statement, elsewhere the row is read back
+     * in the same transaction.
+     *
+     * @param properties      entity property names mapped to their new values
+     * @param expectedVersion if not {@code null}, the row is only updated while it still has this version
+     * @return the user after the update, empty if there is no user with this id and version
+     */
+    @Transactional
+    Optional<User> updateProperties(Long id, Map<String, Object> properties, Long expectedVersion);
+
+    /**
+     * Whether {@link #copyAll(List)} can be used, i.e. the database is PostgreSQL.
+     */
+    boolean supportsCopy();
+
+    /**
+     * Loads the users into a temporary staging table with {@code COPY} and merges them into {@code _user}
+     * with a single {@code INSERT ... SELECT}. Rows whose email already exists are skipped.
+     *
+     * @return emails of the rows that were inserted mapped to their generated ids
+     */
+    @Transactional
+    Map<String, Long> copyAll(List<User> users);
+
+    /**
+     * On PostgreSQL, rebuilds the {@code lastname_key} index with {@code text_pattern_ops} unless it already has it.
+     * Under a non-C collation a plain b-tree index cannot serve {@code LIKE 'prefix%'}, one with the pattern
+     * operator class can. Does nothing on other databases, or while another instance holds the schema advisory lock
+     * for the same change.
+     *
+     * @return whether the index was rebuilt
+     */
+    boolean usePatternIndexForLastnameKey();
+}
@@ -0,0 +1,421 @@
+package com.midel.repository;
+
+import com.midel.entity.User;
+import com.midel.utils.UserUtils;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.stream.Stream;
+
+import static org.springframework.data.jpa.repository.query.QueryUtils.toOrders;
+
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private static final String ESTIMATE_QUERY =
+            "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass('_user')";
+
+    private static final String LASTNAME_KEY_INDEX = "idx_user_lastname_key";
+
+    /**
+     * Key of the PostgreSQL advisory lock taken while changing the schema at startup.
+     */
+    private static final long SCHEMA_LOCK_KEY = 0x5f75736572L;
+
+    private static final String INDEX_DEFINITION_QUERY = "SELECT indexdef FROM pg_indexes WHERE indexname = ?";
+
+    private static final String INSERT_QUERY =
+            "INSERT INTO _user (email, firstname, lastname, birth_date, address, phone_number, lastname_key, email_domain, version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, " + INITIAL_VERSION + ")";
+
+    private static final String CREATE_STAGING_QUERY =
+            "CREATE TEMP TABLE IF NOT EXISTS _user_import (" +
+            "email varchar(255), firstname varchar(255), lastname varchar(255), " +
+            "birth_date date, address varchar(255), phone_number varchar(255), " +
+            "lastname_key varchar(255), email_domain varchar(255)" +
+            ") ON COMMIT DELETE ROWS";
+
+    private static final String COPY_QUERY =
+            "COPY _user_import (email, firstname, lastname, birth_date, address, phone_number, lastname_key, email_domain) " +
+            "FROM STDIN WITH (FORMAT csv)";
+
+    private static final String MERGE_QUERY =
+            "INSERT INTO _user (email, firstname, lastname, birth_date, address, phone_number, lastname_key, email_domain) " +
+            "SELECT email, firstname, lastname, birth_date, address, phone_number, lastname_key, email_domain " +
+            "FROM _user_import " +
+            "ON CONFLICT (email) DO NOTHING RETURNING id, email";
+
+    private static final String SELECT_COLUMNS = "id, email, firstname, lastname, birth_date, address, phone_number, version";
+
+    private static final Map<String, String> PROPERTY_COLUMNS = Map.of(
+            "email", "email",
+            "firstname", "firstname",
+            "lastname", "lastname",
+            "birthdate", "birth_date",
+            "address", "address",
+            "phoneNumber", "phone_number"
+    );
+
+    private static final RowMapper<User> USER_ROW_MAPPER = (resultSet, rowNum) -> new User(
+            resultSet.getLong("id"),
+            resultSet.getString("email"),
+            resultSet.getString("firstname"),
+            resultSet.getString("lastname"),
+            resultSet.getObject("birth_date", LocalDate.class),
+            resultSet.getString("address"),
+            resultSet.getString("phone_number"),
+            resultSet.getLong("version")
+    );
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Boolean postgres;
+
+    public UserRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Slice<User> findSlice(Specification<User> specification, Pageable pageable) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<User> query = criteriaBuilder.createQuery(User.class);
+        Root<User> root = query.from(User.class);
+
+        Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(toOrders(pageable.getSort(), root, criteriaBuilder));
+        }
+
+        List<User> rows = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+
+        boolean hasNext = rows.size() > pageable.getPageSize();
+
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+    }
+
+    @Override
+    public Slice<Map<String, Object>> findSlice(Specification<User> specification, Pageable pageable, List<String> fields) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<User> root = query.from(User.class);
+
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (String field : fields) {
+            selections.add(root.get(field).alias(field));
+        }
+        query.multiselect(selections);
+
+        Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(toOrders(pageable.getSort(), root, criteriaBuilder));
+        }
+
+        List<Tuple> tuples = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+
+        boolean hasNext = tuples.size() > pageable.getPageSize();
+        int count = hasNext ? pageable.getPageSize() : tuples.size();
+
+        List<Map<String, Object>> rows = new ArrayList<>(count);
+        for (Tuple tuple : tuples.subList(0, count)) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String field : fields) {
+                row.put(field, tuple.get(field));
+            }
+            rows.add(row);
+        }
+
+        return new SliceImpl<>(rows, pageable, hasNext);
+    }
+
+    @Override
+    public Stream<User> streamAll(Specification<User> specification, int fetchSize) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<User> query = criteriaBuilder.createQuery(User.class);
+        Root<User> root = query.from(User.class);
+
+        Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(criteriaBuilder.asc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()
+                .peek(entityManager::detach);
+    }
+
+    @Override
+    public List<Long> findIdsAfter(Specification<User> specification, long afterId, int limit) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+        Root<User> root = query.from(User.class);
+
+        Predicate after = criteriaBuilder.greaterThan(root.get("id"), afterId);
+        Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+
+        query.select(root.get("id"))
+                .where(predicate == null ? after : criteriaBuilder.and(predicate, after))
+                .orderBy(criteriaBuilder.asc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public OptionalLong estimateCount() {
+        if (!isPostgres()) {
+            return OptionalLong.empty();
+        }
+
+        Long estimate = jdbcTemplate.queryForObject(ESTIMATE_QUERY, Long.class);
+
+        // reltuples is -1 until the table has been vacuumed or analyzed for the first time.
+        return estimate == null || estimate < 0 ? OptionalLong.empty() : OptionalLong.of(estimate);
+    }
+
+    @Override
+    public List<Long> insertAll(List<User> users) {
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_QUERY, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        User user = users.get(i);
+                        ps.setString(1, user.getEmail());
+                        ps.setString(2, user.getFirstname());
+                        ps.setString(3, user.getLastname());
+                        ps.setObject(4, user.getBirthdate());
+                        ps.setString(5, user.getAddress());
+                        ps.setString(6, user.getPhoneNumber());
+                        ps.setString(7, UserUtils.lastnameKey(user.getLastname()));
+                        ps.setString(8, UserUtils.emailDomain(user.getEmail()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return users.size();
+                    }
+                },
+                keyHolder
+        );
+
+        return keyHolder.getKeyList().stream()
+                .map(keys -> ((Number) keys.values().iterator().next()).longValue())
+                .toList();
+    }
+
+    @Override
+    public Optional<User> updateProperties(Long id, Map<String, Object> properties, Long expectedVersion) {
+        if (properties.isEmpty()) {
+            return selectById(id)
+                    .filter(user -> expectedVersion == null || expectedVersion.equals(user.getVersion()));
+        }
+
+        StringBuilder sql = new StringBuilder("UPDATE _user SET ");
+        List<Object> arguments = new ArrayList<>();
+
+        for (Map.Entry<String, Object> property : properties.entrySet()) {
+            String column = PROPERTY_COLUMNS.get(property.getKey());
+            if (column == null) {
+                throw new IllegalArgumentException("Unknown user property: " + property.getKey());
+            }
+
+            sql.append(column).append(" = ?, ");
+            arguments.add(property.getValue());
+
+            // The indexed search keys are derived from these two, so they change together.
+            if (property.getKey().equals("lastname")) {
+                sql.append("lastname_key = ?, ");
+                arguments.add(UserUtils.lastnameKey((String) property.getValue()));
+            } else if (property.getKey().equals("email")) {
+                sql.append("email_domain = ?, ");
+                arguments.add(UserUtils.emailDomain((String) property.getValue()));
+            }
+        }
+
+        sql.append("version = version + 1 WHERE id = ?");
+        arguments.add(id);
+
+        if (expectedVersion != null) {
+            sql.append(" AND version = ?");
+            arguments.add(expectedVersion);
+        }
+
+        if (isPostgres()) {
+            sql.append(" RETURNING ").append(SELECT_COLUMNS);
+            return jdbcTemplate.query(sql.toString(), USER_ROW_MAPPER, arguments.toArray()).stream().findFirst();
+        }
+
+        if (jdbcTemplate.update(sql.toString(), arguments.toArray()) == 0) {
+            return Optional.empty();
+        }
+        return selectById(id);
+    }
+
+    private Optional<User> selectById(Long id) {
+        return jdbcTemplate.query(
+                "SELECT " + SELECT_COLUMNS + " FROM _user WHERE id = ?", USER_ROW_MAPPER, id
+        ).stream().findFirst();
+    }
+
+    @Override
+    public boolean supportsCopy() {
+        return isPostgres();
+    }
+
+    @Override
+    public Map<String, Long> copyAll(List<User> users) {
+        return jdbcTemplate.execute((ConnectionCallback<Map<String, Long>>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_STAGING_QUERY);
+            }
+
+            StringBuilder csv = new StringBuilder();
+            for (User user : users) {
+                csv.append(copyField(user.getEmail())).append(',')
+                        .append(copyField(user.getFirstname())).append(',')
+                        .append(copyField(user.getLastname())).append(',')
+                        .append(user.getBirthdate()).append(',')
+                        .append(copyField(user.getAddress())).append(',')
+                        .append(copyField(user.getPhoneNumber())).append(',')
+                        .append(copyField(UserUtils.lastnameKey(user.getLastname()))).append(',')
+                        .append(copyField(UserUtils.emailDomain(user.getEmail()))).append('\n');
+            }
+
+            try {
+                connection.unwrap(PGConnection.class).getCopyAPI()
+                        .copyIn(COPY_QUERY, new StringReader(csv.toString()));
+            } catch (IOException e) {
+                throw new SQLException("COPY into the staging table failed.", e);
+            }
+
+            Map<String, Long> inserted = new HashMap<>();
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(MERGE_QUERY)) {
+                while (resultSet.next()) {
+                    inserted.put(resultSet.getString(2), resultSet.getLong(1));
+                }
+            }
+
+            return inserted;
+        });
+    }
+
+    @Override
+    public boolean usePatternIndexForLastnameKey() {
+        if (!isPostgres()) {
+            return false;
+        }
+
+        // All statements run on one connection: the advisory lock belongs to the session, and CONCURRENTLY does
+        // not block writes but needs autocommit, i.e. no surrounding transaction.
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                // Another instance starting at the same time is already on it.
+                if (!queryBoolean(statement, "SELECT pg_try_advisory_lock(" + SCHEMA_LOCK_KEY + ")")) {
+                    return false;
+                }
+                try {
+                    try (PreparedStatement definition = connection.prepareStatement(INDEX_DEFINITION_QUERY)) {
+                        definition.setString(1, LASTNAME_KEY_INDEX);
+                        try (ResultSet resultSet = definition.executeQuery()) {
+                            if (resultSet.next() && resultSet.getString(1).contains("text_pattern_ops")) {
+                                return false;
+                            }
+                        }
+                    }
+
+                    // Built next to the old index and swapped in, so the filter is never left without one.
+                    String building = LASTNAME_KEY_INDEX + "_pattern";
+                    statement.execute("DROP INDEX CONCURRENTLY IF EXISTS " + building);
+                    statement.execute("CREATE INDEX CONCURRENTLY " + building + " ON _user (lastname_key text_pattern_ops)");
+                    statement.execute("DROP INDEX CONCURRENTLY IF EXISTS " + LASTNAME_KEY_INDEX);
+                    statement.execute("ALTER INDEX " + building + " RENAME TO " + LASTNAME_KEY_INDEX);
+                    return true;
+                } finally {
+                    queryBoolean(statement, "SELECT pg_advisory_unlock(" + SCHEMA_LOCK_KEY + ")");
+                }
+            }
+        }));
+    }
+
+    private static boolean queryBoolean(Statement statement, String sql) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery(sql)) {
+            return resultSet.next() && resultSet.getBoolean(1);
+        }
+    }
+
+    /**
+     * Quotes every non-null value, in COPY csv format an unquoted empty field is read as NULL.
+     */
+    private static String copyField(String value) {
+        return value == null ? "" : '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            try {
+                String product = JdbcUtils.extractDatabaseMetaData(
+                        jdbcTemplate.getDataSource(), DatabaseMetaData::getDatabaseProductName
+                );
+                postgres = "PostgreSQL".equals(product);
+            } catch (MetaDataAccessException e) {
+                postgres = false;
+            }
+        }
+        return postgres;
+    }
+}
@@ -0,0 +1,35 @@
+package com.midel.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a single item of a batch request, {@code index} points into the request array.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResult {
+    private final int index;
+    private final int status;
+    private final Long id;
+    private final List<String> message;
+
+    public static BatchItemResult created(int index, Long id) {
+        return new BatchItemResult(index, HttpStatus.CREATED.value(), id, null);
+    }
+
+    public static BatchItemResult failed(int index, List<String> message) {
+        return new BatchItemResult(index, HttpStatus.BAD_REQUEST.value(), null, message);
+    }
+
+    public static BatchItemResult failed(int index, String message) {
+        return failed(index, Collections.singletonList(message));
+    }
+}
@@ -0,0 +1,28 @@
+package com.midel.response;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+import java.util.Map;
+
+@Getter
+public class BatchResponse extends CustomResponse {
+
+    private final Map<String, Long> summary;
+    private final List<BatchItemResult> data;
+
+    public BatchResponse(HttpStatus status, List<BatchItemResult> data) {
+        super(status);
+
+        long succeeded = data.stream().filter(r -> r.getMessage() == null).count();
+
+        this.summary = Map.of(
+                "total", (long) data.size(),
+                "succeeded", succeeded,
+                "failed", data.size() - succeeded
+        );
+
+        this.data = data;
+    }
+}
@@ -2,6 +2,7 @@ package com.midel.response;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Getter;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
@@ -27,4 +28,13 @@ public abstract class CustomResponse {
         );
     }
 
+    @JsonIgnore
+    public ResponseEntity<?> getResponseEntity(HttpHeaders headers) {
+        return new ResponseEntity<>(
+                this,
+                headers,
+                HttpStatusCode.valueOf(this.status)
+        );
+    }
+
 }
@@ -0,0 +1,16 @@
+package com.midel.response;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+@Getter
+public class DeleteResponse extends CustomResponse {
+
+    private final long deleted;
+
+    public DeleteResponse(HttpStatus status, long deleted) {
+        super(status);
+
+        this.deleted = deleted;
+    }
+}
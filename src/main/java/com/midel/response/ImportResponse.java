@@ -0,0 +1,29 @@
+package com.midel.response;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+import java.util.Map;
+
+@Getter
+public class ImportResponse extends CustomResponse {
+
+    private final Map<String, Long> summary;
+    private final List<BatchItemResult> rejected;
+
+    /**
+     * @param rejected report of rejected records, may be shorter than {@code rejectedCount}
+     */
+    public ImportResponse(HttpStatus status, long total, long imported, long rejectedCount, List<BatchItemResult> rejected) {
+        super(status);
+
+        this.summary = Map.of(
+                "total", total,
+                "imported", imported,
+                "rejected", rejectedCount
+        );
+
+        this.rejected = rejected;
+    }
+}
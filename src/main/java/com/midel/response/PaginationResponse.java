@@ -1,5 +1,9 @@
 package com.midel.response;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.midel.service.CountMode;
 import lombok.Getter;
 import org.springframework.http.HttpStatus;
 
@@ -8,20 +12,35 @@ import java.util.List;
 import java.util.Map;
 
 @Getter
+@JsonSerialize(using = PaginationResponseSerializer.class)
+@JsonPropertyOrder({"status", "timestamp", "pagination", "total_elements_type", "links", "data"})
 public class PaginationResponse extends CustomResponse {
 
     private final Map<String, Long> pagination;
+    @JsonProperty("total_elements_type")
+    private final CountMode totalElementsType;
     private final Map<String, String> links;
     private final List<?> data;
 
     public PaginationResponse(HttpStatus status, long page, long size, long total, List<?> data, String nextLink, String prevLink) {
+        this(status, page, size, total, CountMode.EXACT, data, nextLink, prevLink);
+    }
+
+    /**
+     * @param total ignored when {@code totalElementsType} is {@link CountMode#NONE}
+     */
+    public PaginationResponse(HttpStatus status, long page, long size, Long total, CountMode totalElementsType,
+                              List<?> data, String nextLink, String prevLink) {
         super(status);
 
-        this.pagination = Map.of(
-                "page", page,
-                "size", size,
-                "total_elements", total
-        );
+        this.pagination = new LinkedHashMap<>();
+        pagination.put("page", page);
+        pagination.put("size", size);
+        if (totalElementsType != CountMode.NONE) {
+            pagination.put("total_elements", total);
+        }
+
+        this.totalElementsType = totalElementsType;
 
         this.data = data;
 
@@ -33,4 +52,18 @@ public class PaginationResponse extends CustomResponse {
             links.put("prev", prevLink);
         }
     }
+
+    public PaginationResponse(HttpStatus status, long size, List<?> data, String nextLink) {
+        super(status);
+
+        this.pagination = Map.of("size", size);
+        this.totalElementsType = CountMode.NONE;
+
+        this.data = data;
+
+        this.links = new LinkedHashMap<>();
+        if (nextLink != null) {
+            links.put("next", nextLink);
+        }
+    }
 }
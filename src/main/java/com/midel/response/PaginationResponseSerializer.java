@@ -0,0 +1,116 @@
+package com.midel.response;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.midel.entity.User;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Writes a {@link PaginationResponse} straight to the generator instead of introspecting the envelope and every
+ * {@link User} row. The output is the same as Jackson's default bean serialization: same properties, same order,
+ * nulls included. Birthdates are written as ISO-8601 text directly unless dates are configured as timestamps,
+ * everything else date-like goes through the provider so the configured format still applies.
+ */
+public class PaginationResponseSerializer extends StdSerializer<PaginationResponse> {
+
+    public PaginationResponseSerializer() {
+        super(PaginationResponse.class);
+    }
+
+    @Override
+    public void serialize(PaginationResponse response, JsonGenerator generator, SerializerProvider provider)
+            throws IOException {
+
+        generator.writeStartObject();
+
+        generator.writeNumberField("status", response.getStatus());
+        generator.writeFieldName("timestamp");
+        provider.defaultSerializeDateValue(response.getTimestamp(), generator);
+
+        generator.writeObjectFieldStart("pagination");
+        for (Map.Entry<String, Long> entry : response.getPagination().entrySet()) {
+            generator.writeFieldName(entry.getKey());
+            writeNumber(generator, entry.getValue());
+        }
+        generator.writeEndObject();
+
+        generator.writeStringField("total_elements_type", response.getTotalElementsType().getValue());
+
+        generator.writeObjectFieldStart("links");
+        for (Map.Entry<String, String> entry : response.getLinks().entrySet()) {
+            generator.writeStringField(entry.getKey(), entry.getValue());
+        }
+        generator.writeEndObject();
+
+        boolean isoDates = !provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        char[] dateBuffer = new char[10];
+
+        generator.writeArrayFieldStart("data");
+        for (Object item : response.getData()) {
+            if (item instanceof User user) {
+                writeUser(user, generator, provider, isoDates ? dateBuffer : null);
+            } else {
+                provider.defaultSerializeValue(item, generator);
+            }
+        }
+        generator.writeEndArray();
+
+        generator.writeEndObject();
+    }
+
+    /**
+     * @param dateBuffer reused to write the birthdate as ISO-8601, {@code null} to leave the date to the provider
+     */
+    private static void writeUser(User user, JsonGenerator generator, SerializerProvider provider, char[] dateBuffer)
+            throws IOException {
+        generator.writeStartObject(user);
+
+        generator.writeFieldName("id");
+        writeNumber(generator, user.getId());
+        generator.writeStringField("email", user.getEmail());
+        generator.writeStringField("firstname", user.getFirstname());
+        generator.writeStringField("lastname", user.getLastname());
+        LocalDate birthdate = user.getBirthdate();
+        if (dateBuffer != null && birthdate != null && birthdate.getYear() >= 0 && birthdate.getYear() <= 9999) {
+            generator.writeFieldName("birthdate");
+            writeIsoDate(birthdate, dateBuffer);
+            generator.writeString(dateBuffer, 0, dateBuffer.length);
+        } else {
+            provider.defaultSerializeField("birthdate", birthdate, generator);
+        }
+        generator.writeStringField("address", user.getAddress());
+        generator.writeStringField("phoneNumber", user.getPhoneNumber());
+
+        generator.writeEndObject();
+    }
+
+    /**
+     * Same text as {@link LocalDate#toString()} for four-digit years, without creating a string.
+     */
+    private static void writeIsoDate(LocalDate date, char[] buffer) {
+        int year = date.getYear();
+        buffer[0] = (char) ('0' + year / 1000);
+        buffer[1] = (char) ('0' + year / 100 % 10);
+        buffer[2] = (char) ('0' + year / 10 % 10);
+        buffer[3] = (char) ('0' + year % 10);
+        buffer[4] = '-';
+        buffer[5] = (char) ('0' + date.getMonthValue() / 10);
+        buffer[6] = (char) ('0' + date.getMonthValue() % 10);
+        buffer[7] = '-';
+        buffer[8] = (char) ('0' + date.getDayOfMonth() / 10);
+        buffer[9] = (char) ('0' + date.getDayOfMonth() % 10);
+    }
+
+    private static void writeNumber(JsonGenerator generator, Long value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(value);
+        }
+    }
+}
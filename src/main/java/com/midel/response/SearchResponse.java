@@ -0,0 +1,21 @@
+package com.midel.response;
+
+import com.midel.entity.User;
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+
+@Getter
+public class SearchResponse extends CustomResponse {
+
+    private final String query;
+    private final List<User> data;
+
+    public SearchResponse(HttpStatus status, String query, List<User> data) {
+        super(status);
+
+        this.query = query;
+        this.data = data;
+    }
+}
@@ -4,6 +4,8 @@ import com.midel.entity.User;
 import lombok.Getter;
 import org.springframework.http.HttpStatus;
 
+import java.util.Map;
+
 @Getter
 public class UserResponse extends CustomResponse{
     private final Object data;
@@ -15,4 +17,14 @@ public class UserResponse extends CustomResponse{
         this.data = user;
         this.location = location;
     }
+
+    /**
+     * @param fields a subset of the user properties, as selected with the {@code fields} query parameter
+     */
+    public UserResponse(HttpStatus status, Map<String, Object> fields, String location) {
+        super(status);
+
+        this.data = fields;
+        this.location = location;
+    }
 }
@@ -0,0 +1,31 @@
+package com.midel.service;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import com.midel.exception.InvalidArgumentException;
+
+import java.util.Locale;
+
+/**
+ * How {@code total_elements} of a paginated listing is computed.
+ */
+public enum CountMode {
+    /** No count at all, only a has-next probe. */
+    NONE,
+    /** Planner statistics, exact count where the database has none. */
+    ESTIMATE,
+    /** {@code COUNT(*)} with the same filter as the page query. */
+    EXACT;
+
+    public static CountMode from(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidArgumentException("The 'count' value must be one of: none, estimate, exact.");
+        }
+    }
+
+    @JsonValue
+    public String getValue() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,37 @@
+package com.midel.service;
+
+import com.midel.exception.InvalidArgumentException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.MediaType;
+
+import java.util.Locale;
+
+/**
+ * Line-oriented formats used to export and import users in bulk.
+ */
+@Getter
+@AllArgsConstructor
+public enum DataFormat {
+    NDJSON(MediaType.parseMediaType("application/x-ndjson")),
+    CSV(MediaType.parseMediaType("text/csv;charset=UTF-8"));
+
+    private final MediaType mediaType;
+
+    public static DataFormat from(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidArgumentException("The 'format' value must be one of: ndjson, csv.");
+        }
+    }
+
+    public static DataFormat fromMediaType(MediaType mediaType) {
+        for (DataFormat format : values()) {
+            if (format.mediaType.equalsTypeAndSubtype(mediaType)) {
+                return format;
+            }
+        }
+        throw new InvalidArgumentException("The content type must be one of: application/x-ndjson, text/csv.");
+    }
+}
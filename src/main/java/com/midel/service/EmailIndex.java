@@ -0,0 +1,130 @@
+package com.midel.service;
+
+import com.midel.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Bloom filter over normalised user emails, warmed from the database at startup.
+ * <p>
+ * {@link #mightContain(String)} returning {@code false} means the email is definitely new, so the duplicate
+ * check can skip the database. {@code true} only means "maybe" and has to be confirmed with a query: deleted
+ * users cannot be removed from the filter and case variants share an entry. Rows written by other instances
+ * are not seen at all, which is why the unique constraint on {@code _user.email} remains the final authority.
+ */
+@Slf4j
+@Component
+public class EmailIndex {
+
+    private final UserRepository userRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    private volatile boolean warmedUp;
+
+    public EmailIndex(
+            UserRepository userRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${email-index.expected-size}") long expectedSize,
+            @Value("${email-index.false-positive-rate}") double falsePositiveRate
+    ) {
+        this.userRepository = userRepository;
+        this.transactionManager = transactionManager;
+
+        long optimalBits = (long) Math.ceil(-expectedSize * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bits = new AtomicLongArray((int) Math.max(1, (optimalBits + 63) / 64));
+        this.bitCount = bits.length() * 64L;
+        this.hashCount = (int) Math.max(1, Math.round((double) bitCount / expectedSize * Math.log(2)));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+
+        long start = System.currentTimeMillis();
+        LongAdder count = new LongAdder();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<String> emails = userRepository.streamAllEmails()) {
+                emails.forEach(email -> {
+                    add(email);
+                    count.increment();
+                });
+            }
+        });
+
+        warmedUp = true;
+        log.info("Email index warmed up with {} emails in {} ms", count.sum(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * @return {@code false} if no user has this email, {@code true} if one may have it
+     */
+    public boolean mightContain(String email) {
+        if (!warmedUp) {
+            return true;
+        }
+
+        long hash = hash(email);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void add(String email) {
+        long hash = hash(email);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+            long mask = 1L << bit;
+            int word = (int) (bit >>> 6);
+
+            if ((bits.get(word) & mask) == 0) {
+                bits.getAndAccumulate(word, mask, (current, m) -> current | m);
+            }
+        }
+    }
+
+    /**
+     * 64-bit FNV-1a over the normalised email followed by a murmur3 finaliser.
+     */
+    private static long hash(String email) {
+        byte[] bytes = email.trim().toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8);
+
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,214 @@
+package com.midel.service;
+
+import com.midel.entity.User;
+import com.midel.exception.AlreadyExistException;
+import com.midel.exception.InvalidArgumentException;
+import com.midel.exception.ServiceUnavailableException;
+import com.midel.limit.ConcurrencyLimitAspect;
+import com.midel.response.BatchItemResult;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Group commit for {@code POST /users}: validated users are queued and a single writer thread inserts them in
+ * micro-batches through {@link UserService#createUsers(List)}, one JDBC batch and one transaction per
+ * micro-batch, instead of one transaction and one log flush per request.
+ * <p>
+ * A micro-batch is written once it holds {@code max-batch-size} users or its oldest user has waited
+ * {@code max-delay}, whichever comes first. Users queued while a batch is being written go out together in the
+ * next one, so batches grow with the load.
+ * <p>
+ * Backpressure: when the queue stays full for {@code offer-timeout} the request is rejected with
+ * {@link ServiceUnavailableException} instead of waiting indefinitely.
+ * <p>
+ * Durability: a caller only gets its id after the transaction of its batch has committed, so an acknowledged user
+ * is as durable as with a synchronous insert. Users still queued when the process dies are lost, but none of
+ * them has been acknowledged. On shutdown new users are rejected and the queue is drained before the writer stops;
+ * anything the writer can no longer take is failed with {@link ServiceUnavailableException}. A caller waits at most
+ * {@code write-timeout} for its batch, so no request hangs on a stuck writer.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "group-commit.enabled", havingValue = "true")
+public class GroupCommitWriter {
+
+    static final String QUEUE_FULL_MESSAGE = "Too many users are being created, please retry later.";
+    static final String STOPPED_MESSAGE = "Users cannot be created right now, please retry later.";
+    static final String WRITE_TIMEOUT_MESSAGE = "The user could not be confirmed in time, it may still be created.";
+
+    private static final long POLL_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final UserService userService;
+    private final BlockingQueue<PendingUser> queue;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final Duration offerTimeout;
+    private final Duration writeTimeout;
+    private final Thread writer;
+
+    private volatile boolean closed;
+
+    public GroupCommitWriter(
+            UserService userService,
+            @Value("${group-commit.queue-capacity}") int queueCapacity,
+            @Value("${group-commit.max-batch-size}") int maxBatchSize,
+            @Value("${group-commit.max-delay}") Duration maxDelay,
+            @Value("${group-commit.offer-timeout}") Duration offerTimeout,
+            @Value("${group-commit.write-timeout}") Duration writeTimeout
+    ) {
+        this.userService = userService;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.offerTimeout = offerTimeout;
+        this.writeTimeout = writeTimeout;
+
+        this.writer = new Thread(this::run, "group-commit-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queues the user and waits until its batch has been committed.
+     *
+     * @return the user with its generated id
+     * @throws AlreadyExistException       if the email is taken, also by a user earlier in the same batch
+     * @throws ServiceUnavailableException if the queue is full, the writer is shutting down or the batch was not
+     *                                     committed within {@code write-timeout}
+     */
+    public User write(User user) {
+        CompletableFuture<User> future = submit(user);
+        try {
+            return future.get(writeTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new CompletionException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ServiceUnavailableException(WRITE_TIMEOUT_MESSAGE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException(WRITE_TIMEOUT_MESSAGE);
+        }
+    }
+
+    CompletableFuture<User> submit(User user) {
+        if (closed) {
+            throw new ServiceUnavailableException(STOPPED_MESSAGE);
+        }
+
+        PendingUser pending = new PendingUser(user, System.nanoTime(), new CompletableFuture<>());
+        try {
+            if (!queue.offer(pending, offerTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new ServiceUnavailableException(QUEUE_FULL_MESSAGE);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException(QUEUE_FULL_MESSAGE);
+        }
+
+        // Closed while offering: the writer may already have made its last pass over the queue. If the user is
+        // still there it is taken back, otherwise the writer got it and completes or fails it.
+        if (closed && queue.remove(pending)) {
+            throw new ServiceUnavailableException(STOPPED_MESSAGE);
+        }
+        return pending.future();
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        closed = true;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    private void run() {
+        List<PendingUser> batch = new ArrayList<>(maxBatchSize);
+        try {
+            writeBatches(batch);
+        } finally {
+            closed = true;
+            queue.drainTo(batch);
+            ServiceUnavailableException stopped = new ServiceUnavailableException(STOPPED_MESSAGE);
+            batch.forEach(pending -> pending.future().completeExceptionally(stopped));
+        }
+    }
+
+    private void writeBatches(List<PendingUser> batch) {
+        while (!closed || !queue.isEmpty()) {
+            try {
+                PendingUser first = queue.poll(POLL_INTERVAL_NANOS, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Short polls, so a shutdown does not wait for a long max-delay.
+                long deadline = first.queuedAt() + maxDelayNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0 || closed) {
+                        queue.drainTo(batch, maxBatchSize - batch.size());
+                        break;
+                    }
+
+                    PendingUser next = queue.poll(Math.min(remaining, POLL_INTERVAL_NANOS), TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+            } catch (InterruptedException e) {
+                closed = true;
+            }
+
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingUser> batch) {
+        List<BatchItemResult> results;
+        try {
+            // The requests waiting for this batch already hold their permits.
+            results = ConcurrencyLimitAspect.admitted(
+                    () -> userService.createUsers(batch.stream().map(PendingUser::user).toList())
+            );
+        } catch (RuntimeException e) {
+            log.error("Group commit of {} users failed", batch.size(), e);
+            batch.forEach(pending -> pending.future().completeExceptionally(e));
+            return;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            PendingUser pending = batch.get(i);
+            BatchItemResult result = results.get(i);
+
+            if (result.getMessage() == null) {
+                pending.future().complete(pending.user());
+            } else if (result.getMessage().equals(List.of(UserServiceImpl.EMAIL_EXISTS_MESSAGE))) {
+                pending.future().completeExceptionally(new AlreadyExistException(UserServiceImpl.EMAIL_EXISTS_MESSAGE));
+            } else {
+                pending.future().completeExceptionally(new InvalidArgumentException(result.getMessage()));
+            }
+        }
+    }
+
+    private record PendingUser(User user, long queuedAt, CompletableFuture<User> future) {
+    }
+}
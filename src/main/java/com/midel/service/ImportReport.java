@@ -0,0 +1,46 @@
+package com.midel.service;
+
+import com.midel.response.BatchItemResult;
+import com.midel.response.ImportResponse;
+import org.springframework.http.HttpStatus;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Running totals of an import. Only the first {@value #MAX_REPORTED_REJECTIONS} rejected records
+ * are kept with their reasons, so the report stays bounded for inputs of any size.
+ */
+class ImportReport {
+
+    static final int MAX_REPORTED_REJECTIONS = 1000;
+
+    private long total;
+    private long imported;
+    private long rejectedCount;
+    private final List<BatchItemResult> rejected = new ArrayList<>();
+
+    void record() {
+        total++;
+    }
+
+    void imported() {
+        imported++;
+    }
+
+    void reject(int index, List<String> messages) {
+        rejectedCount++;
+        if (rejected.size() < MAX_REPORTED_REJECTIONS) {
+            rejected.add(BatchItemResult.failed(index, messages));
+        }
+    }
+
+    void reject(int index, String message) {
+        reject(index, Collections.singletonList(message));
+    }
+
+    ImportResponse toResponse() {
+        return new ImportResponse(HttpStatus.OK, total, imported, rejectedCount, rejected);
+    }
+}
@@ -0,0 +1,43 @@
+package com.midel.service;
+
+import com.midel.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills {@code lastname_key} and {@code email_domain} for users stored before the columns were added,
+ * so the lastname and domain filters find them. New and updated rows get the keys when they are written, so once
+ * no row lacks them the table is not updated again.
+ * On PostgreSQL it also gives the {@code lastname_key} index the pattern operator class the prefix filter needs.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SearchKeyBackfill {
+
+    private final UserRepository userRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        // Neither step is needed to serve requests, so a failure is logged and retried on the next start.
+        try {
+            if (userRepository.existsByLastnameKeyIsNullOrEmailDomainIsNull()) {
+                log.info("Filled search keys of {} users", userRepository.fillMissingSearchKeys());
+            }
+        } catch (DataAccessException e) {
+            log.warn("Filling missing search keys failed", e);
+        }
+
+        try {
+            if (userRepository.usePatternIndexForLastnameKey()) {
+                log.info("Rebuilt the lastname_key index with text_pattern_ops");
+            }
+        } catch (DataAccessException e) {
+            log.warn("Rebuilding the lastname_key index failed", e);
+        }
+    }
+}
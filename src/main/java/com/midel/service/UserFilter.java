@@ -0,0 +1,113 @@
+package com.midel.service;
+
+import com.midel.entity.User;
+import com.midel.utils.UserUtils;
+import jakarta.persistence.criteria.Predicate;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Filters of a user listing. Each one is optional, they are combined with AND and each is served by one of
+ * the indexes declared on {@link User}.
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class UserFilter {
+
+    public static final UserFilter NONE = new UserFilter(null, null, null, null);
+
+    /**
+     * Birthdate range, {@code from} inclusive and {@code to} exclusive, applied only when both are given.
+     */
+    LocalDate from;
+    LocalDate to;
+
+    /**
+     * Case-insensitive lastname prefix.
+     */
+    String lastname;
+
+    /**
+     * Case-insensitive email domain, the part after {@code @}.
+     */
+    String domain;
+
+    /**
+     * Blank lastname and domain values are treated as absent.
+     */
+    public static UserFilter of(LocalDate from, LocalDate to, String lastname, String domain) {
+        return new UserFilter(
+                from, to,
+                lastname == null || lastname.isBlank() ? null : lastname,
+                domain == null || domain.isBlank() ? null : domain
+        );
+    }
+
+    public static UserFilter birthdate(LocalDate from, LocalDate to) {
+        return new UserFilter(from, to, null, null);
+    }
+
+    public boolean hasBirthdate() {
+        return from != null && to != null;
+    }
+
+    public boolean isEmpty() {
+        return !hasBirthdate() && lastname == null && domain == null;
+    }
+
+    public Specification<User> toSpecification() {
+        String lastnamePrefix = UserUtils.lastnameKey(lastname);
+        // Also accepts "@example.com" and whole emails.
+        String emailDomain = domain == null ? null : UserUtils.emailDomain("@" + domain);
+
+        return (root, query, criteriaBuilder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (hasBirthdate()) {
+                predicates.add(criteriaBuilder.greaterThanOrEqualTo(root.get("birthdate"), from));
+                predicates.add(criteriaBuilder.lessThan(root.get("birthdate"), to));
+            }
+
+            if (lastnamePrefix != null) {
+                // Inlined rather than bound, so the planner sees the prefix and can use the lastname_key index,
+                // see UserRepositoryCustom#usePatternIndexForLastnameKey.
+                predicates.add(criteriaBuilder.like(
+                        root.get("lastnameKey"), criteriaBuilder.literal(escapeLike(lastnamePrefix) + "%"), '\\'
+                ));
+            }
+
+            if (emailDomain != null) {
+                predicates.add(criteriaBuilder.equal(root.get("emailDomain"), emailDomain));
+            }
+
+            return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Appends the filter as query parameters, so pagination links keep filtering the same way.
+     */
+    public void appendQueryParameters(StringBuilder link) {
+        if (hasBirthdate()) {
+            link.append("&from=").append(from).append("&to=").append(to);
+        }
+        if (lastname != null) {
+            link.append("&lastname=").append(URLEncoder.encode(lastname, StandardCharsets.UTF_8));
+        }
+        if (domain != null) {
+            link.append("&domain=").append(URLEncoder.encode(domain, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
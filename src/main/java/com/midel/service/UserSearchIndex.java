@@ -0,0 +1,352 @@
+package com.midel.service;
+
+import com.midel.entity.User;
+import com.midel.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory trigram inverted index over the firstname, lastname, email and address of every user, used by
+ * {@code GET /users/search}.
+ * <p>
+ * Text is lower-cased and split into words of letters and digits, each word padded like {@code pg_trgm} does
+ * ({@code "  word "}) and cut into trigrams. A user matches when it shares at least 30% of the query trigrams,
+ * so typos and partial words still match. Results are ranked by the share of matched query trigrams, then by
+ * the share of the user's own trigrams, so shorter and closer entries come first.
+ * <p>
+ * Built from the database at startup and kept current by {@link UserSearchIndexListener} for JPA writes and by
+ * {@link UserServiceImpl} for the JDBC batch paths. The index only proposes ids: users are then loaded by primary
+ * key, so ids deleted or rolled back since they were indexed drop out. Rows written by other instances are not
+ * seen until restart.
+ */
+@Slf4j
+@Component
+public class UserSearchIndex {
+
+    static final double MIN_SIMILARITY = 0.3;
+
+    private final UserRepository userRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final int fetchSize;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Sorted distinct trigrams of every indexed user, with the position of the user in each trigram's posting.
+     */
+    private final Map<Long, Document> documents = new HashMap<>();
+
+    /**
+     * Ids of the users containing each trigram.
+     */
+    private final Map<Long, Posting> postings = new HashMap<>();
+
+    public UserSearchIndex(
+            UserRepository userRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${fetch-size}") int fetchSize
+    ) {
+        this.userRepository = userRepository;
+        this.transactionManager = transactionManager;
+        this.fetchSize = fetchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+
+        long start = System.currentTimeMillis();
+        LongAdder count = new LongAdder();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<User> users = userRepository.streamAll((root, query, criteriaBuilder) -> null, fetchSize)) {
+                users.forEach(user -> {
+                    // Users written while warming up are already indexed with their newer values.
+                    index(user, false);
+                    count.increment();
+                });
+            }
+        });
+
+        log.info("Search index warmed up with {} users in {} ms", count.sum(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Indexes a new user or replaces the entry of an updated one.
+     */
+    public void add(User user) {
+        index(user, true);
+    }
+
+    public void remove(Long id) {
+        removeAll(List.of(id));
+    }
+
+    /**
+     * Removes the users under a single acquisition of the write lock, so searches wait once per chunk of a bulk
+     * delete rather than once per user.
+     */
+    public void removeAll(Collection<Long> ids) {
+        lock.writeLock().lock();
+        try {
+            for (Long id : ids) {
+                Document document = documents.remove(id);
+                if (document != null) {
+                    for (int i = 0; i < document.grams.length; i++) {
+                        removePosting(document.grams[i], document.slots[i]);
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return ids of at most {@code limit} matching users, best match first
+     */
+    public List<Long> search(String query, int limit) {
+        long[] queryGrams = trigrams(query);
+        if (queryGrams.length == 0) {
+            return List.of();
+        }
+
+        int minShared = Math.max(1, (int) Math.ceil(MIN_SIMILARITY * queryGrams.length));
+        PriorityQueue<Hit> best = new PriorityQueue<>(Hit.RANKING);
+
+        lock.readLock().lock();
+        try {
+            List<Posting> lists = new ArrayList<>(queryGrams.length);
+            for (long gram : queryGrams) {
+                lists.add(postings.getOrDefault(gram, Posting.EMPTY));
+            }
+            lists.sort(Comparator.comparingInt(posting -> posting.size));
+
+            // A user sharing minShared trigrams is in at least one of the shortest (n - minShared + 1) lists,
+            // so the longest lists never have to be walked.
+            Set<Long> candidates = new HashSet<>();
+            for (Posting posting : lists.subList(0, queryGrams.length - minShared + 1)) {
+                for (int i = 0; i < posting.size; i++) {
+                    candidates.add(posting.ids[i]);
+                }
+            }
+
+            for (Long id : candidates) {
+                long[] grams = documents.get(id).grams;
+                int shared = countShared(queryGrams, grams);
+                if (shared < minShared) {
+                    continue;
+                }
+
+                best.add(new Hit(id, (double) shared / queryGrams.length, (double) shared / grams.length));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Long[] ids = new Long[best.size()];
+        for (int i = ids.length - 1; i >= 0; i--) {
+            ids[i] = best.poll().id;
+        }
+        return Arrays.asList(ids);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param replace whether an existing entry is overwritten or kept
+     */
+    private void index(User user, boolean replace) {
+        long[] grams = trigrams(user.getFirstname(), user.getLastname(), user.getEmail(), user.getAddress());
+
+        lock.writeLock().lock();
+        try {
+            Document previous = documents.get(user.getId());
+            if (previous != null && !replace) {
+                return;
+            }
+
+            Document document = new Document(grams, new int[grams.length]);
+            if (previous != null) {
+                for (int i = 0; i < previous.grams.length; i++) {
+                    int kept = Arrays.binarySearch(grams, previous.grams[i]);
+                    if (kept >= 0) {
+                        document.slots[kept] = previous.slots[i];
+                    } else {
+                        removePosting(previous.grams[i], previous.slots[i]);
+                    }
+                }
+            }
+            for (int i = 0; i < grams.length; i++) {
+                if (previous == null || Arrays.binarySearch(previous.grams, grams[i]) < 0) {
+                    document.slots[i] = postings.computeIfAbsent(grams[i], g -> new Posting()).add(user.getId());
+                }
+            }
+            documents.put(user.getId(), document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Takes the entry at {@code slot} out of the trigram's posting in constant time: the last entry is moved into
+     * the gap and the slot recorded for it in its own document is updated.
+     */
+    private void removePosting(long gram, int slot) {
+        Posting posting = postings.get(gram);
+        long moved = posting.remove(slot);
+        if (posting.size == 0) {
+            postings.remove(gram);
+        } else if (slot < posting.size) {
+            Document document = documents.get(moved);
+            document.slots[Arrays.binarySearch(document.grams, gram)] = slot;
+        }
+    }
+
+    /**
+     * Sorted distinct trigrams of all words in the given texts, {@code null} texts are skipped.
+     */
+    static long[] trigrams(String... texts) {
+        Set<Long> grams = new HashSet<>();
+
+        for (String text : texts) {
+            if (text == null) {
+                continue;
+            }
+            String lower = text.toLowerCase(Locale.ROOT);
+
+            int i = 0;
+            while (i < lower.length()) {
+                while (i < lower.length() && !Character.isLetterOrDigit(lower.charAt(i))) {
+                    i++;
+                }
+                int start = i;
+                while (i < lower.length() && Character.isLetterOrDigit(lower.charAt(i))) {
+                    i++;
+                }
+                if (i > start) {
+                    addWord(lower, start, i, grams);
+                }
+            }
+        }
+
+        long[] sorted = new long[grams.size()];
+        int n = 0;
+        for (Long gram : grams) {
+            sorted[n++] = gram;
+        }
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    /**
+     * Trigrams of {@code "  " + word + " "}, each packed as three 16-bit chars.
+     */
+    private static void addWord(String text, int start, int end, Set<Long> grams) {
+        char a = ' ';
+        char b = ' ';
+        for (int i = start; i <= end; i++) {
+            char c = i < end ? text.charAt(i) : ' ';
+            grams.add((long) a << 32 | (long) b << 16 | c);
+            a = b;
+            b = c;
+        }
+    }
+
+    private static int countShared(long[] a, long[] b) {
+        int shared = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                shared++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * @param slots for each of {@code grams}, the position of the user in that trigram's posting
+     */
+    private record Document(long[] grams, int[] slots) {
+    }
+
+    /**
+     * Unordered growable list of ids, changed only under the write lock.
+     */
+    private static final class Posting {
+
+        static final Posting EMPTY = new Posting();
+
+        long[] ids = new long[4];
+        int size;
+
+        /**
+         * @return the slot of the added id
+         */
+        int add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size] = id;
+            return size++;
+        }
+
+        /**
+         * Fills the slot with the last id.
+         *
+         * @return the id now at {@code slot}, meaningless if the slot was the last one
+         */
+        long remove(int slot) {
+            ids[slot] = ids[--size];
+            return ids[slot];
+        }
+    }
+
+    private record Hit(long id, double queryShare, double userShare) {
+
+        /**
+         * Worst hit first, so the queue can drop it once it holds more than the limit.
+         */
+        static final Comparator<Hit> RANKING = Comparator.comparingDouble(Hit::queryShare)
+                .thenComparingDouble(Hit::userShare)
+                .thenComparing(Comparator.comparingLong(Hit::id).reversed());
+    }
+}
@@ -0,0 +1,31 @@
+package com.midel.service;
+
+import com.midel.entity.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Keeps {@link UserSearchIndex} current for users written through JPA. Created by Hibernate through the Spring
+ * bean container while the entity manager is being built, so the index is looked up lazily on each event.
+ */
+public class UserSearchIndexListener {
+
+    private final ObjectProvider<UserSearchIndex> searchIndex;
+
+    public UserSearchIndexListener(ObjectProvider<UserSearchIndex> searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    void indexed(User user) {
+        searchIndex.ifAvailable(index -> index.add(user));
+    }
+
+    @PostRemove
+    void removed(User user) {
+        searchIndex.ifAvailable(index -> index.remove(user.getId()));
+    }
+}
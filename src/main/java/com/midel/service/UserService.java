@@ -1,21 +1,64 @@
 package com.midel.service;
 
 import com.midel.entity.User;
+import com.midel.response.BatchItemResult;
+import com.midel.response.ImportResponse;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDate;
+import java.util.List;
 
 public interface UserService {
 
+    /**
+     * Inserts the user in its own transaction, or through {@link GroupCommitWriter} when group commit is enabled.
+     */
     User createUser(User user);
 
+    List<BatchItemResult> createUsers(List<User> users);
+
+    /**
+     * Imports users from a CSV or NDJSON stream in chunks of {@code batch-size} records.
+     * Invalid and duplicate records are rejected individually and listed in the report.
+     */
+    ImportResponse importUsers(InputStream input, DataFormat format) throws IOException;
+
     User getUserById(Long id);
 
-    ResponseEntity<?> getUsersWithPagination(int page, int size, LocalDate from, LocalDate to);
+    /**
+     * @param fields the properties to select, see {@link com.midel.utils.UserFields}; {@code null} for whole users
+     */
+    ResponseEntity<?> getUsersWithPagination(int page, int size, UserFilter filter, CountMode countMode,
+                                             List<String> fields);
+
+    ResponseEntity<?> getUsersWithCursor(String after, int size, UserFilter filter, List<String> fields);
 
-    User updateUser(Long id, User user);
+    /**
+     * Users whose name, email or address resemble {@code query}, best match first, see {@link UserSearchIndex}.
+     */
+    ResponseEntity<?> searchUsers(String query, int limit);
 
-    User partiallyUpdateUser(Long id, User user);
+    /**
+     * Validates the filter eagerly and returns a body that streams every matching user in the given format.
+     */
+    StreamingResponseBody exportUsers(LocalDate from, LocalDate to, DataFormat format);
+
+    /**
+     * @param expectedVersion the version from an {@code If-Match} header, {@code null} to update unconditionally
+     */
+    User updateUser(Long id, User user, Long expectedVersion);
+
+    User partiallyUpdateUser(Long id, User user, Long expectedVersion);
 
     void deleteUser(Long id);
+
+    /**
+     * Deletes users either by id or by the birthdate filter, in chunks of {@code batch-size} rows.
+     *
+     * @return number of deleted users
+     */
+    long deleteUsers(List<Long> ids, LocalDate from, LocalDate to);
 }
@@ -1,36 +1,108 @@
 package com.midel.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.midel.entity.User;
 import com.midel.exception.AlreadyExistException;
 import com.midel.exception.InvalidArgumentException;
 import com.midel.exception.NotFoundException;
+import com.midel.exception.PreconditionFailedException;
 import com.midel.repository.UserRepository;
+import com.midel.response.BatchItemResult;
+import com.midel.response.ImportResponse;
 import com.midel.response.PaginationResponse;
+import com.midel.response.SearchResponse;
+import com.midel.utils.CsvReader;
+import com.midel.utils.LineReader;
+import com.midel.utils.MalformedRecordException;
+import com.midel.utils.ETags;
+import com.midel.utils.UserFields;
+import com.midel.utils.UserCursor;
 import com.midel.utils.UserUtils;
-import jakarta.persistence.criteria.Predicate;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.UriComponentsBuilder;
-
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.stream.Stream;
 
+@Timed(UserServiceImpl.TIMER_NAME)
 @Service
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
 
+    public static final String USER_CACHE = "users";
+    public static final String TIMER_NAME = "user.service";
+
+    public static final String EMAIL_EXISTS_MESSAGE = "A user with this email already exists.";
+
+    private static final String MALFORMED_RECORD_MESSAGE = "Malformed record.";
+
+    private static final Sort KEYSET_SORT = Sort.by("birthdate", "id");
+
+    private static final int MAX_SEARCH_LIMIT = 100;
+
     private final UserRepository userRepository;
 
+    private final EmailIndex emailIndex;
+
+    private final UserSearchIndex searchIndex;
+
+    /**
+     * Present when {@code group-commit.enabled} is set.
+     */
+    private final ObjectProvider<GroupCommitWriter> groupCommitWriter;
+
+    private final CacheManager cacheManager;
+
+    private final PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper;
+
     @Value("${server.address}")
     private String address;
 
@@ -40,164 +112,697 @@ public class UserServiceImpl implements UserService {
     @Value("${allowed-age}")
     private int allowedAge;
 
+    @Value("${batch-size}")
+    private int batchSize;
+
+    @Value("${fetch-size}")
+    private int fetchSize;
+
+    @Value("${import.max-record-length}")
+    private int maxRecordLength;
+
+    private String usersUrl;
+
     @Override
     public User createUser(User user) {
-        return save(user);
+        GroupCommitWriter writer = groupCommitWriter.getIfAvailable();
+        if (writer == null) {
+            return save(user);
+        }
+
+        // Rejected requests never take a place in the queue.
+        checkNewUser(user);
+        return writer.write(user);
     }
 
     @Override
+    public List<BatchItemResult> createUsers(List<User> users) {
+        BatchItemResult[] results = new BatchItemResult[users.size()];
+
+        Set<String> requestEmails = new HashSet<>();
+        List<Integer> pending = new ArrayList<>();
+
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            List<String> messages = UserUtils.validateUser(user, false, allowedAge);
+
+            if (!messages.isEmpty()) {
+                results[i] = BatchItemResult.failed(i, messages);
+            } else if (!requestEmails.add(user.getEmail())) {
+                results[i] = BatchItemResult.failed(i, EMAIL_EXISTS_MESSAGE);
+            } else {
+                pending.add(i);
+            }
+        }
+
+        for (int start = 0; start < pending.size(); start += batchSize) {
+            storeChunk(users, pending.subList(start, Math.min(start + batchSize, pending.size())), results);
+        }
+
+        return Arrays.asList(results);
+    }
+
+    @Override
+    public ImportResponse importUsers(InputStream input, DataFormat format) throws IOException {
+        ImportReport report = new ImportReport();
+
+        List<User> chunk = new ArrayList<>(batchSize);
+        List<Integer> chunkIndexes = new ArrayList<>(batchSize);
+
+        readRecords(input, format, (index, user, error) -> {
+            report.record();
+
+            List<String> messages = error != null ? List.of(error) : UserUtils.validateUser(user, false, allowedAge);
+            if (!messages.isEmpty()) {
+                report.reject(index, messages);
+                return;
+            }
+
+            chunk.add(user);
+            chunkIndexes.add(index);
+
+            if (chunk.size() == batchSize) {
+                importChunk(chunk, chunkIndexes, report);
+                chunk.clear();
+                chunkIndexes.clear();
+            }
+        });
+
+        importChunk(chunk, chunkIndexes, report);
+
+        return report.toResponse();
+    }
+
+    /**
+     * Not read-only on purpose: the result is cached for every client, so it must not come from a lagging replica.
+     * <p>
+     * Loaded with {@code sync}, so an eviction by a concurrent update waits for a load in progress and removes
+     * what it stored, instead of the load storing the row it read before the update afterwards.
+     */
+    @Override
+    @Cacheable(cacheNames = USER_CACHE, key = "#id", sync = true)
+    @Transactional
     public User getUserById(Long id) {
         return userRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("User with id = " + id + " not found."));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ResponseEntity<?> getUsersWithPagination(
             int page, int size,
-            LocalDate from, LocalDate to
+            UserFilter filter,
+            CountMode countMode,
+            List<String> fields
     ) {
 
-        if (from != null && to != null && to.isBefore(from)) {
-            throw new InvalidArgumentException("The 'to' value must be after the 'from' value");
-        }
-
-        UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromPath("/users")
-                .queryParam("page", page)
-                .queryParam("size", size);
+        UserUtils.validateDateRange(filter.getFrom(), filter.getTo());
 
         Pageable pageable = PageRequest.of(page, size);
 
-        Specification<User> specification = (root, query, criteriaBuilder) -> {
-            List<Predicate> predicates = new ArrayList<>();
+        // Links keep the query parameter order they always had: page goes last.
+        StringBuilder link = new StringBuilder(usersUrl()).append("?size=").append(size);
 
-            if (from != null && to != null) {
-                predicates.add(criteriaBuilder.greaterThanOrEqualTo(root.get("birthdate"), from));
-                predicates.add(criteriaBuilder.lessThan(root.get("birthdate"), to));
+        filter.appendQueryParameters(link);
 
-                uriBuilder.replaceQueryParam("from", from);
-                uriBuilder.replaceQueryParam("to", to);
-            }
-
-            return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
-        };
+        if (countMode != CountMode.EXACT) {
+            link.append("&count=").append(countMode.getValue());
+        }
 
-        Page<User> dataPage = userRepository.findAll(specification, pageable);
+        if (fields != null) {
+            link.append("&fields=").append(String.join(",", fields));
+        }
 
-        uriBuilder.replaceQueryParam("page", Math.min(page+1, dataPage.getTotalPages()));
-        String nextPage = String.format("http://%s:%d%s", address, port, uriBuilder.toUriString());
+        link.append("&page=");
+        int linkPrefixLength = link.length();
+
+        Specification<User> specification = filter.toSpecification();
+
+        Slice<?> dataSlice;
+        Long total = null;
+
+        if (countMode == CountMode.EXACT && fields == null) {
+            Page<User> dataPage = userRepository.findAll(specification, pageable);
+            total = dataPage.getTotalElements();
+            dataSlice = dataPage;
+        } else {
+            // A projection selects only the requested columns instead of loading managed entities.
+            dataSlice = fields == null
+                    ? userRepository.findSlice(specification, pageable)
+                    : userRepository.findSlice(specification, pageable, fields);
+
+            if (countMode == CountMode.EXACT) {
+                total = userRepository.count(specification);
+            } else if (countMode == CountMode.ESTIMATE) {
+                // Planner statistics only describe the whole table, so a filtered listing is counted exactly.
+                OptionalLong estimate = !filter.isEmpty() ? OptionalLong.empty() : userRepository.estimateCount();
+
+                if (estimate.isPresent()) {
+                    total = estimate.getAsLong();
+                } else {
+                    total = userRepository.count(specification);
+                    countMode = CountMode.EXACT;
+                }
+            }
+        }
 
-        uriBuilder.replaceQueryParam("page", Math.max(page-1, 0));
-        String prevPage = String.format("http://%s:%d%s", address, port, uriBuilder.toUriString());
+        String nextPage = dataSlice.hasNext() ? link.append(page + 1).toString() : null;
 
-        long total = dataPage.getTotalElements();
+        link.setLength(linkPrefixLength);
+        String prevPage = dataSlice.hasPrevious() ? link.append(Math.max(page - 1, 0)).toString() : null;
 
-        List<User> data = dataPage.get().toList();
+        List<?> data = dataSlice.get().toList();
 
         return new PaginationResponse(
-                HttpStatus.OK, page, size, total,
+                HttpStatus.OK, page, size, total, countMode,
                 data,
-                dataPage.hasNext()? nextPage : null,
-                dataPage.hasPrevious()?prevPage : null
+                nextPage,
+                prevPage
         ).getResponseEntity();
     }
 
     @Override
-    public User updateUser(Long id, User user) {
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> getUsersWithCursor(
+            String after, int size,
+            UserFilter filter,
+            List<String> fields
+    ) {
+
+        UserUtils.validateDateRange(filter.getFrom(), filter.getTo());
+
+        if (size < 1) {
+            throw new InvalidArgumentException("The 'size' value must be greater than zero.");
+        }
 
-        Optional<User> optionalUser = userRepository.findById(id);
+        Specification<User> specification = filter.toSpecification();
 
-        if (optionalUser.isEmpty()) {
-            throw new NotFoundException("User with id = " + id + " does not exist");
+        if (after != null && !after.isBlank()) {
+            specification = specification.and(seekAfter(UserCursor.decode(after)));
+        }
+
+        List<?> data;
+        UserCursor next = null;
+
+        if (fields == null) {
+            // One extra row tells us whether a next page exists without running a count query.
+            List<User> rows = userRepository.findBy(specification, query -> query
+                    .sortBy(KEYSET_SORT)
+                    .limit(size + 1)
+                    .all()
+            );
+
+            boolean hasNext = rows.size() > size;
+            List<User> users = hasNext ? rows.subList(0, size) : rows;
+            if (hasNext) {
+                next = UserCursor.of(users.get(users.size() - 1));
+            }
+            data = users;
+        } else {
+            // The cursor is built from the keyset columns, so they are selected even when not requested.
+            List<String> selected = UserFields.with(fields, "id", "birthdate");
+            Slice<Map<String, Object>> slice = userRepository
+                    .findSlice(specification, PageRequest.of(0, size, KEYSET_SORT), selected);
+
+            List<Map<String, Object>> rows = slice.getContent();
+            if (slice.hasNext()) {
+                next = UserCursor.of(rows.get(rows.size() - 1));
+            }
+            if (selected.size() != fields.size()) {
+                rows.forEach(row -> row.keySet().retainAll(fields));
+            }
+            data = rows;
         }
 
-        User existingUser = optionalUser.get();
-        existingUser.setEmail(user.getEmail());
-        existingUser.setFirstname(user.getFirstname());
-        existingUser.setLastname(user.getLastname());
-        existingUser.setBirthdate(user.getBirthdate());
-        existingUser.setAddress(user.getAddress());
-        existingUser.setPhoneNumber(user.getPhoneNumber());
+        String nextPage = null;
+        if (next != null) {
+            StringBuilder link = new StringBuilder(usersUrl())
+                    .append("?after=").append(next.encode())
+                    .append("&size=").append(size);
 
-        return save(existingUser);
+            filter.appendQueryParameters(link);
+
+            if (fields != null) {
+                link.append("&fields=").append(String.join(",", fields));
+            }
+
+            nextPage = link.toString();
+        }
+
+        return new PaginationResponse(HttpStatus.OK, size, data, nextPage).getResponseEntity();
     }
 
     @Override
-    public User partiallyUpdateUser(Long id, User user) {
-        Optional<User> optionalUser = userRepository.findById(id);
+    public ResponseEntity<?> searchUsers(String query, int limit) {
 
-        if (optionalUser.isEmpty()) {
-            throw new NotFoundException("User with id = " + id + " does not exist");
+        if (query == null || query.isBlank()) {
+            throw new InvalidArgumentException("The 'q' value must not be empty.");
         }
 
-        User existingUser = optionalUser.get();
+        if (limit < 1 || limit > MAX_SEARCH_LIMIT) {
+            throw new InvalidArgumentException("The 'limit' value must be between 1 and " + MAX_SEARCH_LIMIT + ".");
+        }
+
+        List<Long> ids = searchIndex.search(query, limit);
+
+        // Loaded by primary key, then put back in rank order. Ids of users deleted meanwhile are just missing.
+        Map<Long, User> users = new HashMap<>();
+        userRepository.findAllById(ids).forEach(user -> users.put(user.getId(), user));
+
+        List<User> ranked = ids.stream()
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .toList();
+
+        return new SearchResponse(HttpStatus.OK, query, ranked).getResponseEntity();
+    }
+
+    @Override
+    public StreamingResponseBody exportUsers(LocalDate from, LocalDate to, DataFormat format) {
+
+        UserUtils.validateDateRange(from, to);
+
+        Specification<User> specification = UserFilter.birthdate(from, to).toSpecification();
+
+        return out -> {
+            // The body is written after the controller returns, so the transaction has to be opened here.
+            // PostgreSQL only honours the fetch size inside a transaction.
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            transactionTemplate.setReadOnly(true);
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    try (Stream<User> users = userRepository.streamAll(specification, fetchSize)) {
+                        if (format == DataFormat.CSV) {
+                            writeCsv(users, out);
+                        } else {
+                            writeNdjson(users, out);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+    }
+
+    /**
+     * Evicts the cached user rather than putting the result: a concurrent {@link #getUserById} may have read the
+     * old row already, and it would overwrite the put with it. The update has committed before the eviction.
+     */
+    @Override
+    @CacheEvict(cacheNames = USER_CACHE, key = "#id")
+    public User updateUser(Long id, User user, Long expectedVersion) {
+
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("email", user.getEmail());
+        properties.put("firstname", user.getFirstname());
+        properties.put("lastname", user.getLastname());
+        properties.put("birthdate", user.getBirthdate());
+        properties.put("address", user.getAddress());
+        properties.put("phoneNumber", user.getPhoneNumber());
+
+        return update(id, UserUtils.validateUser(user, false, allowedAge), properties, expectedVersion);
+    }
+
+    @Override
+    @CacheEvict(cacheNames = USER_CACHE, key = "#id")
+    public User partiallyUpdateUser(Long id, User user, Long expectedVersion) {
+
+        Map<String, Object> properties = new LinkedHashMap<>();
         if (user.getEmail() != null) {
-            existingUser.setEmail(user.getEmail());
+            properties.put("email", user.getEmail());
         }
         if (user.getFirstname() != null) {
-            existingUser.setFirstname(user.getFirstname());
+            properties.put("firstname", user.getFirstname());
         }
         if (user.getLastname() != null) {
-            existingUser.setLastname(user.getLastname());
+            properties.put("lastname", user.getLastname());
         }
         if (user.getBirthdate() != null) {
-            existingUser.setBirthdate(user.getBirthdate());
+            properties.put("birthdate", user.getBirthdate());
         }
         if (user.getAddress() != null) {
-            existingUser.setAddress(user.getAddress());
+            properties.put("address", user.getAddress());
         }
         if (user.getPhoneNumber() != null) {
-            existingUser.setPhoneNumber(user.getPhoneNumber());
+            properties.put("phoneNumber", user.getPhoneNumber());
         }
 
-        return save(existingUser);
+        return update(id, UserUtils.validateUser(user, true, allowedAge), properties, expectedVersion);
     }
 
     @Override
+    @CacheEvict(cacheNames = USER_CACHE, key = "#id")
     public void deleteUser(Long id) {
         userRepository.deleteById(id);
     }
 
-    private User save(User user) {
+    @Override
+    public long deleteUsers(List<Long> ids, LocalDate from, LocalDate to) {
 
-        List<String> messages = validateUser(user);
+        boolean byIds = ids != null;
+        boolean byFilter = from != null && to != null;
 
-        if (!messages.isEmpty()) {
-            throw new InvalidArgumentException(messages);
+        if (byIds == byFilter) {
+            throw new InvalidArgumentException("Either a list of ids or both 'from' and 'to' values must be given.");
+        }
+
+        long deleted = 0;
+
+        if (byIds) {
+            for (int start = 0; start < ids.size(); start += batchSize) {
+                deleted += deleteChunk(ids.subList(start, Math.min(start + batchSize, ids.size())));
+            }
+            return deleted;
+        }
+
+        UserUtils.validateDateRange(from, to);
+
+        Specification<User> specification = UserFilter.birthdate(from, to).toSpecification();
+        long afterId = Long.MIN_VALUE;
+
+        // Walk the filter by id so every chunk is a bounded SELECT plus a bounded DELETE in its own transaction.
+        List<Long> chunk;
+        do {
+            chunk = userRepository.findIdsAfter(specification, afterId, batchSize);
+            if (!chunk.isEmpty()) {
+                deleted += deleteChunk(chunk);
+                afterId = chunk.get(chunk.size() - 1);
+            }
+        } while (chunk.size() == batchSize);
+
+        return deleted;
+    }
+
+    private int deleteChunk(List<Long> ids) {
+        int deleted = userRepository.deleteByIds(ids);
+        searchIndex.removeAll(ids);
+
+        Cache cache = cacheManager.getCache(USER_CACHE);
+        if (cache != null) {
+            ids.forEach(cache::evict);
+        }
+
+        return deleted;
+    }
+
+    private static Specification<User> seekAfter(UserCursor cursor) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.or(
+                criteriaBuilder.greaterThan(root.get("birthdate"), cursor.getBirthdate()),
+                criteriaBuilder.and(
+                        criteriaBuilder.equal(root.get("birthdate"), cursor.getBirthdate()),
+                        criteriaBuilder.greaterThan(root.get("id"), cursor.getId())
+                )
+        );
+    }
+
+    /**
+     * {@code http://address:port/users}, the prefix of every pagination link, built on first use.
+     */
+    private String usersUrl() {
+        if (usersUrl == null) {
+            usersUrl = "http://" + address + ":" + port + "/users";
+        }
+        return usersUrl;
+    }
+
+    private void writeNdjson(Stream<User> users, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+
+            Iterator<User> iterator = users.iterator();
+            while (iterator.hasNext()) {
+                writer.writeValue(generator, iterator.next());
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    private void writeCsv(Stream<User> users, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(UserUtils.CSV_HEADER);
+
+        Iterator<User> iterator = users.iterator();
+        while (iterator.hasNext()) {
+            writer.write(UserUtils.toCsvRow(iterator.next()));
+        }
+
+        writer.flush();
+    }
+
+    private void storeChunk(List<User> users, List<Integer> indexes, BatchItemResult[] results) {
+        List<String> maybeExisting = indexes.stream()
+                .map(i -> users.get(i).getEmail())
+                .filter(emailIndex::mightContain)
+                .toList();
+
+        Set<String> existingEmails = maybeExisting.isEmpty()
+                ? Set.of()
+                : userRepository.findExistingEmails(maybeExisting);
+
+        List<Integer> toInsert = new ArrayList<>();
+        for (Integer i : indexes) {
+            if (existingEmails.contains(users.get(i).getEmail())) {
+                results[i] = BatchItemResult.failed(i, EMAIL_EXISTS_MESSAGE);
+            } else {
+                toInsert.add(i);
+            }
+        }
+
+        insertChunk(users, toInsert, results);
+    }
+
+    private void importChunk(List<User> chunk, List<Integer> chunkIndexes, ImportReport report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        Set<String> chunkEmails = new HashSet<>();
+        List<Integer> unique = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            if (chunkEmails.add(chunk.get(i).getEmail())) {
+                unique.add(i);
+            } else {
+                report.reject(chunkIndexes.get(i), EMAIL_EXISTS_MESSAGE);
+            }
+        }
+
+        if (userRepository.supportsCopy()) {
+            Map<String, Long> inserted = userRepository.copyAll(unique.stream().map(chunk::get).toList());
+
+            inserted.keySet().forEach(emailIndex::add);
+
+            for (Integer i : unique) {
+                User user = chunk.get(i);
+                Long id = inserted.get(user.getEmail());
+                if (id != null) {
+                    user.setId(id);
+                    searchIndex.add(user);
+                    report.imported();
+                } else {
+                    report.reject(chunkIndexes.get(i), EMAIL_EXISTS_MESSAGE);
+                }
+            }
+            return;
+        }
+
+        BatchItemResult[] results = new BatchItemResult[chunk.size()];
+        storeChunk(chunk, unique, results);
+
+        for (Integer i : unique) {
+            if (results[i].getMessage() == null) {
+                report.imported();
+            } else {
+                report.reject(chunkIndexes.get(i), results[i].getMessage());
+            }
+        }
+    }
+
+    /**
+     * Parses the input one record at a time. Records that cannot be parsed, or are longer than
+     * {@code import.max-record-length}, are passed on with an error instead of a user, blank lines are skipped.
+     * {@code index} counts records, excluding the CSV header.
+     */
+    private void readRecords(InputStream input, DataFormat format, RecordConsumer consumer) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        int index = 0;
+
+        if (format == DataFormat.NDJSON) {
+            LineReader lineReader = new LineReader(reader, maxRecordLength);
+            while (true) {
+                String line;
+                try {
+                    line = lineReader.readLine();
+                } catch (MalformedRecordException e) {
+                    consumer.accept(index++, null, e.getMessage());
+                    continue;
+                }
+                if (line == null) {
+                    return;
+                }
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                try {
+                    User user = objectMapper.readValue(line, User.class);
+                    user.setId(null);
+                    consumer.accept(index++, user, null);
+                } catch (JsonProcessingException e) {
+                    consumer.accept(index++, null, MALFORMED_RECORD_MESSAGE);
+                }
+            }
         }
 
+        CsvReader csvReader = new CsvReader(reader, maxRecordLength);
+
+        List<String> header;
         try {
-            return userRepository.save(user);
+            header = csvReader.readRecord();
+        } catch (MalformedRecordException e) {
+            throw new InvalidArgumentException("Malformed CSV header: " + e.getMessage());
+        }
+        if (header == null || !header.containsAll(List.of("email", "firstname", "lastname", "birthdate"))) {
+            throw new InvalidArgumentException("The CSV header must contain the columns: email, firstname, lastname, birthdate.");
+        }
 
-        } catch (DataIntegrityViolationException e) {
-            throw new AlreadyExistException("A user with this email already exists.");
+        while (true) {
+            List<String> record;
+            try {
+                record = csvReader.readRecord();
+            } catch (MalformedRecordException e) {
+                consumer.accept(index++, null, e.getMessage());
+                continue;
+            }
+            if (record == null) {
+                return;
+            }
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            if (record.size() != header.size()) {
+                consumer.accept(index++, null, MALFORMED_RECORD_MESSAGE);
+                continue;
+            }
+
+            User user = new User();
+            user.setEmail(csvValue(header, record, "email"));
+            user.setFirstname(csvValue(header, record, "firstname"));
+            user.setLastname(csvValue(header, record, "lastname"));
+            user.setAddress(csvValue(header, record, "address"));
+            user.setPhoneNumber(csvValue(header, record, "phoneNumber"));
+
+            String birthdate = csvValue(header, record, "birthdate");
+            try {
+                user.setBirthdate(birthdate == null ? null : LocalDate.parse(birthdate));
+            } catch (DateTimeParseException e) {
+                consumer.accept(index++, null, "Invalid birthdate format, expected yyyy-MM-dd.");
+                continue;
+            }
+
+            consumer.accept(index++, user, null);
         }
     }
 
-    private List<String> validateUser(User user) {
-        List<String> messages = new ArrayList<>();
+    private static String csvValue(List<String> header, List<String> record, String column) {
+        int position = header.indexOf(column);
+        if (position < 0 || record.get(position).isEmpty()) {
+            return null;
+        }
+        return record.get(position);
+    }
+
+    private interface RecordConsumer {
+        void accept(int index, User user, String error);
+    }
+
+    private void insertChunk(List<User> users, List<Integer> indexes, BatchItemResult[] results) {
+        if (indexes.isEmpty()) {
+            return;
+        }
+
+        List<User> chunk = indexes.stream().map(users::get).toList();
+
+        try {
+            List<Long> ids = userRepository.insertAll(chunk);
+
+            for (int j = 0; j < indexes.size(); j++) {
+                emailIndex.add(chunk.get(j).getEmail());
+                chunk.get(j).setId(ids.get(j));
+                chunk.get(j).setVersion(UserRepository.INITIAL_VERSION);
+                searchIndex.add(chunk.get(j));
+                results[indexes.get(j)] = BatchItemResult.created(indexes.get(j), ids.get(j));
+            }
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request inserted one of the emails after the existence check.
+            // The chunk was rolled back, so retry row by row to isolate the offending rows.
+            if (indexes.size() == 1) {
+                results[indexes.get(0)] = BatchItemResult.failed(indexes.get(0), EMAIL_EXISTS_MESSAGE);
+                return;
+            }
 
-        if (user.getEmail() == null || user.getEmail().isBlank()) {
-            messages.add("'email' is a required field.");
+            indexes.forEach(i -> insertChunk(users, List.of(i), results));
         }
-        else if (!UserUtils.isEmailValid(user.getEmail())){
-            messages.add("Invalid email.");
+    }
+
+    private User save(User user) {
+
+        checkNewUser(user);
+
+        try {
+            User saved = userRepository.save(user);
+            emailIndex.add(saved.getEmail());
+            return saved;
+
+        } catch (DataIntegrityViolationException e) {
+            throw new AlreadyExistException(EMAIL_EXISTS_MESSAGE);
         }
+    }
+
+    private void checkNewUser(User user) {
+        List<String> messages = UserUtils.validateUser(user, false, allowedAge);
 
-        if (user.getFirstname() == null ||  user.getFirstname().isBlank()) {
-            messages.add("'firstname' is a required field.");
+        if (!messages.isEmpty()) {
+            throw new InvalidArgumentException(messages);
         }
 
-        if (user.getLastname() == null ||  user.getLastname().isBlank()) {
-            messages.add("'lastname' is a required field.");
+        if (emailIndex.mightContain(user.getEmail()) && userRepository.existsByEmail(user.getEmail())) {
+            throw new AlreadyExistException(EMAIL_EXISTS_MESSAGE);
         }
+    }
 
-        if (user.getBirthdate() == null) {
-            messages.add("'birthdate' is a required field.");
+    /**
+     * Writes only the given properties with a single statement, without loading the user first.
+     * When a version is expected and nothing was updated, the user either is gone or was changed concurrently.
+     */
+    private User update(Long id, List<String> messages, Map<String, Object> properties, Long expectedVersion) {
+
+        if (!messages.isEmpty()) {
+            throw new InvalidArgumentException(messages);
         }
-        else if (!UserUtils.isBirthDateValid(user.getBirthdate(), allowedAge)) {
-            messages.add("Invalid birthdate. Value must be earlier than current date and the user must be at least " + allowedAge + " years old.");
+
+        String email = (String) properties.get("email");
+        if (email != null && emailIndex.mightContain(email) && userRepository.existsByEmailAndIdNot(email, id)) {
+            throw new AlreadyExistException(EMAIL_EXISTS_MESSAGE);
         }
 
-        return messages;
+        try {
+            User updated = userRepository.updateProperties(id, properties, expectedVersion)
+                    .orElseThrow(() -> expectedVersion != null && userRepository.existsById(id)
+                            ? new PreconditionFailedException(ETags.MISMATCH_MESSAGE)
+                            : new NotFoundException("User with id = " + id + " does not exist"));
+            emailIndex.add(updated.getEmail());
+            searchIndex.add(updated);
+            return updated;
+
+        } catch (DataIntegrityViolationException e) {
+            throw new AlreadyExistException(EMAIL_EXISTS_MESSAGE);
+        }
     }
 }
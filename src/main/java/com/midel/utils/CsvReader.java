@@ -0,0 +1,105 @@
+package com.midel.utils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads RFC 4180 records one at a time, so the input never has to fit in memory.
+ * Quoted fields may contain separators, doubled quotes and line breaks.
+ * <p>
+ * A record is read into memory as a whole, so it may hold at most {@code maxRecordLength} characters. A longer
+ * record, or a quote that is never closed, is reported as a {@link MalformedRecordException} after the reader
+ * skipped to the next line, instead of buffering the rest of the input as one field.
+ */
+public class CsvReader {
+
+    private final Reader reader;
+
+    private final int maxRecordLength;
+
+    private int next = -2;
+
+    public CsvReader(Reader reader, int maxRecordLength) {
+        this.reader = reader;
+        this.maxRecordLength = maxRecordLength;
+    }
+
+    /**
+     * @return fields of the next record or {@code null} at the end of the input
+     * @throws MalformedRecordException if the record is too long or has an unterminated quote,
+     *                                  the reader is then at the next line
+     */
+    public List<String> readRecord() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int length = 0;
+
+        while (true) {
+            if (++length > maxRecordLength) {
+                skipLine(c);
+                throw new MalformedRecordException("Record longer than " + maxRecordLength + " characters.");
+            }
+
+            if (quoted) {
+                if (c == -1) {
+                    throw new MalformedRecordException("Unterminated quoted field.");
+                }
+                if (c == '"') {
+                    if (peek() == '"') {
+                        read();
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                if (c == '\r' && peek() == '\n') {
+                    read();
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+
+            c = read();
+        }
+    }
+
+    private void skipLine(int c) throws IOException {
+        while (c != -1 && c != '\n') {
+            c = read();
+        }
+    }
+
+    private int read() throws IOException {
+        if (next != -2) {
+            int c = next;
+            next = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private int peek() throws IOException {
+        if (next == -2) {
+            next = reader.read();
+        }
+        return next;
+    }
+}
@@ -0,0 +1,66 @@
+package com.midel.utils;
+
+import com.midel.exception.InvalidArgumentException;
+import com.midel.exception.PreconditionFailedException;
+
+/**
+ * Strong ETags derived from the user version, e.g. {@code "3"}.
+ */
+public final class ETags {
+
+    public static final String MISMATCH_MESSAGE = "The user has been modified, 'If-Match' does not match the current ETag.";
+
+    private ETags() {
+    }
+
+    public static String of(Long version) {
+        return version == null ? null : "\"" + version + "\"";
+    }
+
+    /**
+     * Weak comparison against an {@code If-None-Match} header, as RFC 9110 prescribes for GET.
+     */
+    public static boolean matchesAny(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null || eTag == null) {
+            return false;
+        }
+
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || stripWeak(trimmed).equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads the version a client expects from an {@code If-Match} header.
+     *
+     * @return the expected version, {@code null} if any version is acceptable
+     */
+    public static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+
+        String eTag = ifMatch.trim();
+        if (eTag.startsWith("W/")) {
+            // Strong comparison never matches a weak ETag.
+            throw new PreconditionFailedException(MISMATCH_MESSAGE);
+        }
+
+        try {
+            if (eTag.length() < 3 || eTag.charAt(0) != '"' || eTag.charAt(eTag.length() - 1) != '"') {
+                throw new NumberFormatException();
+            }
+            return Long.parseLong(eTag.substring(1, eTag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new InvalidArgumentException("The 'If-Match' header must contain a single ETag returned by this API.");
+        }
+    }
+
+    private static String stripWeak(String eTag) {
+        return eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+    }
+}
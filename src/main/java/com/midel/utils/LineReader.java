@@ -0,0 +1,74 @@
+package com.midel.utils;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads lines of at most {@code maxLineLength} characters. Unlike {@link java.io.BufferedReader#readLine()},
+ * a line without a line break does not end up in memory as a whole: its rest is skipped and the line is
+ * reported as a {@link MalformedRecordException}.
+ */
+public class LineReader {
+
+    private final Reader reader;
+
+    private final int maxLineLength;
+
+    private final StringBuilder line = new StringBuilder();
+
+    private int next = -2;
+
+    public LineReader(Reader reader, int maxLineLength) {
+        this.reader = reader;
+        this.maxLineLength = maxLineLength;
+    }
+
+    /**
+     * @return the next line without its line break or {@code null} at the end of the input
+     * @throws MalformedRecordException if the line is longer than the limit, the reader is then at the next line
+     */
+    public String readLine() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+
+        line.setLength(0);
+        while (c != -1 && c != '\n' && c != '\r') {
+            if (line.length() == maxLineLength) {
+                skipLine();
+                throw new MalformedRecordException("Record longer than " + maxLineLength + " characters.");
+            }
+            line.append((char) c);
+            c = read();
+        }
+        if (c == '\r' && peek() == '\n') {
+            read();
+        }
+
+        return line.toString();
+    }
+
+    private void skipLine() throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (c != -1 && c != '\n');
+    }
+
+    private int read() throws IOException {
+        if (next != -2) {
+            int c = next;
+            next = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private int peek() throws IOException {
+        if (next == -2) {
+            next = reader.read();
+        }
+        return next;
+    }
+}
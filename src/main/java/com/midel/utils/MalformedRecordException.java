@@ -0,0 +1,14 @@
+package com.midel.utils;
+
+import java.io.IOException;
+
+/**
+ * A single record of an import could not be read. The reader has already skipped past it,
+ * so the caller can report the record and go on with the next one.
+ */
+public class MalformedRecordException extends IOException {
+
+    public MalformedRecordException(String message) {
+        super(message);
+    }
+}
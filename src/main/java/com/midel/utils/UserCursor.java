@@ -0,0 +1,54 @@
+package com.midel.utils;
+
+import com.midel.entity.User;
+import com.midel.exception.InvalidArgumentException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Opaque position in the user list ordered by {@code (birthdate, id)}.
+ * Encoded as URL-safe Base64 so clients treat it as a token rather than a value to build.
+ */
+@Getter
+@AllArgsConstructor
+public final class UserCursor {
+
+    private final LocalDate birthdate;
+    private final Long id;
+
+    public static UserCursor of(User user) {
+        return new UserCursor(user.getBirthdate(), user.getId());
+    }
+
+    /**
+     * @param row a projected user that contains at least {@code birthdate} and {@code id}
+     */
+    public static UserCursor of(Map<String, Object> row) {
+        return new UserCursor((LocalDate) row.get("birthdate"), (Long) row.get("id"));
+    }
+
+    public String encode() {
+        String raw = birthdate + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static UserCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+
+            return new UserCursor(
+                    LocalDate.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1))
+            );
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new InvalidArgumentException("Invalid 'after' cursor.");
+        }
+    }
+}
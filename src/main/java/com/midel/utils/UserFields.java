@@ -0,0 +1,83 @@
+package com.midel.utils;
+
+import com.midel.entity.User;
+import com.midel.exception.InvalidArgumentException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code fields} query parameter: a comma separated subset of the user properties to return.
+ */
+public final class UserFields {
+
+    /**
+     * Every selectable property, in the order they are serialized.
+     */
+    public static final List<String> ALL = List.of(
+            "id", "email", "firstname", "lastname", "birthdate", "address", "phoneNumber"
+    );
+
+    private UserFields() {
+    }
+
+    /**
+     * @return the requested properties without duplicates in {@link #ALL} order, {@code null} if all are requested
+     */
+    public static List<String> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+
+        boolean[] requested = new boolean[ALL.size()];
+        for (String field : fields.split(",")) {
+            int index = ALL.indexOf(field.trim());
+            if (index < 0) {
+                throw new InvalidArgumentException(
+                        "Unknown field '" + field.trim() + "'. The 'fields' value may contain: " + String.join(", ", ALL) + "."
+                );
+            }
+            requested[index] = true;
+        }
+
+        List<String> parsed = new ArrayList<>();
+        for (int i = 0; i < requested.length; i++) {
+            if (requested[i]) {
+                parsed.add(ALL.get(i));
+            }
+        }
+        return parsed;
+    }
+
+    /**
+     * {@code fields} plus the {@code required} properties, still in {@link #ALL} order.
+     */
+    public static List<String> with(List<String> fields, String... required) {
+        List<String> union = new ArrayList<>();
+        for (String field : ALL) {
+            if (fields.contains(field) || List.of(required).contains(field)) {
+                union.add(field);
+            }
+        }
+        return union;
+    }
+
+    public static Map<String, Object> of(User user, List<String> fields) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (String field : fields) {
+            values.put(field, switch (field) {
+                case "id" -> user.getId();
+                case "email" -> user.getEmail();
+                case "firstname" -> user.getFirstname();
+                case "lastname" -> user.getLastname();
+                case "birthdate" -> user.getBirthdate();
+                case "address" -> user.getAddress();
+                case "phoneNumber" -> user.getPhoneNumber();
+                default -> throw new IllegalArgumentException("Unknown user property: " + field);
+            });
+        }
+        return values;
+    }
+}
@@ -1,22 +1,155 @@
 package com.midel.utils;
 
+import com.midel.entity.User;
+import com.midel.exception.InvalidArgumentException;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 
 @Component
 public final class UserUtils {
 
-    private static final String EMAIL_PATTERN =
-            "^[_A-Za-z0-9-]+(\\.[_A-Za-z0-9-]+)*@[A-Za-z0-9-]+(\\.[A-Za-z0-9]+)*(\\.[A-Za-z]{2,})$";
+    /**
+     * Single pass equivalent of
+     * {@code ^[_A-Za-z0-9-]+(\.[_A-Za-z0-9-]+)*@[A-Za-z0-9-]+(\.[A-Za-z0-9]+)*(\.[A-Za-z]{2,})$}
+     * that neither backtracks nor allocates: dot-separated non-empty local segments, one {@code @}, and at least
+     * two domain segments where only the first may contain {@code -} and the last has two or more letters only.
+     */
+    public static boolean isEmailValid(String email) {
+        int length = email.length();
 
-    private static final Pattern pattern = Pattern.compile(EMAIL_PATTERN);
+        int i = 0;
+        int segmentStart = 0;
+        for (; i < length; i++) {
+            char c = email.charAt(i);
+            if (c == '@') {
+                break;
+            }
+            if (c == '.') {
+                if (i == segmentStart) {
+                    return false;
+                }
+                segmentStart = i + 1;
+            } else if (!isAsciiLetterOrDigit(c) && c != '_' && c != '-') {
+                return false;
+            }
+        }
+        if (i == length || i == segmentStart) {
+            return false;
+        }
 
-    public static boolean isEmailValid(String email) {
-        Matcher matcher = pattern.matcher(email);
-        return matcher.matches();
+        int domainStart = i + 1;
+        segmentStart = domainStart;
+        boolean lettersOnly = true;
+        for (i = domainStart; i < length; i++) {
+            char c = email.charAt(i);
+            if (c == '.') {
+                if (i == segmentStart) {
+                    return false;
+                }
+                segmentStart = i + 1;
+                lettersOnly = true;
+            } else if ((c >= '0' && c <= '9') || (c == '-' && segmentStart == domainStart)) {
+                lettersOnly = false;
+            } else if (!isAsciiLetterOrDigit(c)) {
+                return false;
+            }
+        }
+
+        return segmentStart != domainStart && lettersOnly && length - segmentStart >= 2;
+    }
+
+    private static boolean isAsciiLetterOrDigit(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+
+    /**
+     * Value of the indexed {@code lastname_key} column: the lastname in lower case.
+     */
+    public static String lastnameKey(String lastname) {
+        return lastname == null ? null : lastname.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Value of the indexed {@code email_domain} column: the part after the last {@code @} in lower case,
+     * {@code null} if there is none.
+     */
+    public static String emailDomain(String email) {
+        int at = email == null ? -1 : email.lastIndexOf('@');
+        return at < 0 ? null : email.substring(at + 1).toLowerCase(Locale.ROOT);
+    }
+
+    public static final String CSV_HEADER = "id,email,firstname,lastname,birthdate,address,phoneNumber\r\n";
+
+    public static String toCsvRow(User user) {
+        return String.join(",",
+                String.valueOf(user.getId()),
+                escapeCsv(user.getEmail()),
+                escapeCsv(user.getFirstname()),
+                escapeCsv(user.getLastname()),
+                user.getBirthdate() == null ? "" : user.getBirthdate().toString(),
+                escapeCsv(user.getAddress()),
+                escapeCsv(user.getPhoneNumber())
+        ) + "\r\n";
+    }
+
+    private static String escapeCsv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Checks shared by the servlet and the reactive API.
+     *
+     * @param partial whether absent ({@code null}) fields are left out of the check, as for PATCH
+     * @return one message per failed check, empty if the user is valid
+     */
+    public static List<String> validateUser(User user, boolean partial, int allowedAge) {
+        List<String> messages = new ArrayList<>();
+
+        if (isMissing(user.getEmail(), partial)) {
+            messages.add("'email' is a required field.");
+        }
+        else if (user.getEmail() != null && !isEmailValid(user.getEmail())){
+            messages.add("Invalid email.");
+        }
+
+        if (isMissing(user.getFirstname(), partial)) {
+            messages.add("'firstname' is a required field.");
+        }
+
+        if (isMissing(user.getLastname(), partial)) {
+            messages.add("'lastname' is a required field.");
+        }
+
+        if (user.getBirthdate() == null) {
+            if (!partial) {
+                messages.add("'birthdate' is a required field.");
+            }
+        }
+        else if (!isBirthDateValid(user.getBirthdate(), allowedAge)) {
+            messages.add("Invalid birthdate. Value must be earlier than current date and the user must be at least " + allowedAge + " years old.");
+        }
+
+        return messages;
+    }
+
+    private static boolean isMissing(String value, boolean partial) {
+        return value == null ? !partial : value.isBlank();
+    }
+
+    public static void validateDateRange(LocalDate from, LocalDate to) {
+        if (from != null && to != null && to.isBefore(from)) {
+            throw new InvalidArgumentException("The 'to' value must be after the 'from' value");
+        }
     }
 
     public static boolean isBirthDateValid(LocalDate birthDate, int allowedAge) {
@@ -0,0 +1,33 @@
+package com.midel.aot;
+
+import com.midel.entity.User;
+import com.midel.response.PaginationResponse;
+import com.midel.response.PaginationResponseSerializer;
+import com.midel.response.UserResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import java.sql.Connection;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ApplicationRuntimeHintsTest {
+
+    @Test
+    void registerHints_coversJsonTypesAndConnectionProxy() throws Exception {
+        // Arrange
+        RuntimeHints hints = new RuntimeHints();
+
+        // Act
+        new ApplicationRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        // Assert
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(UserResponse.class.getMethod("getData")).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(User.class.getMethod("setEmail", String.class)).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(PaginationResponseSerializer.class)
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints));
+        assertTrue(RuntimeHintsPredicates.proxies().forInterfaces(Connection.class).test(hints));
+    }
+}
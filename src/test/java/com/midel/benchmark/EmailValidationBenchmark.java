@@ -0,0 +1,39 @@
+package com.midel.benchmark;
+
+import com.midel.utils.UserUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link UserUtils#isEmailValid(String)} for accepted, rejected and backtracking-heavy near-miss addresses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmailValidationBenchmark {
+
+    @Param({"valid", "invalid", "adversarial"})
+    public String input;
+
+    private String email;
+
+    @Setup
+    public void setUp() {
+        email = switch (input) {
+            case "valid" -> "john.doe-smith@mail.example.com";
+            case "invalid" -> "john.doe@@example..com";
+            // Long dotted domain whose single-letter TLD only fails after every segment has been tried.
+            case "adversarial" -> "a.".repeat(100) + "a@" + "b1.".repeat(300) + "c";
+            default -> throw new IllegalArgumentException(input);
+        };
+    }
+
+    @Benchmark
+    public boolean isEmailValid() {
+        return UserUtils.isEmailValid(email);
+    }
+}
@@ -0,0 +1,72 @@
+package com.midel.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.midel.entity.User;
+import com.midel.response.PaginationResponse;
+import com.midel.response.UserResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpStatus;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the response envelopes and serializing a page of users the way the controller does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseBenchmark {
+
+    private static final String NEXT_LINK = "http://localhost:8080/users?page=2&size=20";
+    private static final String PREV_LINK = "http://localhost:8080/users?page=0&size=20";
+
+    @Param({"20", "100", "1000"})
+    public int pageSize;
+
+    private ObjectMapper objectMapper;
+    private List<User> users;
+    private PaginationResponse page;
+
+    @Setup
+    public void setUp() {
+        // Same date handling as the Spring Boot auto-configured mapper.
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        users = new ArrayList<>(pageSize);
+        for (long i = 1; i <= pageSize; i++) {
+            users.add(new User(
+                    i, "user" + i + "@example.com", "Name" + i, "Lastname" + i,
+                    LocalDate.of(1990, 1, 1).plusDays(i), "Street " + i, "+38050" + (1000000 + i)
+            ));
+        }
+
+        page = paginationResponse();
+    }
+
+    @Benchmark
+    public PaginationResponse paginationResponse() {
+        return new PaginationResponse(HttpStatus.OK, 1, pageSize, 100_000L, users, NEXT_LINK, PREV_LINK);
+    }
+
+    @Benchmark
+    public UserResponse userResponse() {
+        return new UserResponse(HttpStatus.OK, users.get(0), "http://localhost:8080/users/1");
+    }
+
+    @Benchmark
+    public void serializePage() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), page);
+    }
+}
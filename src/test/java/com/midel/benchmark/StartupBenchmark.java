@@ -0,0 +1,148 @@
+package com.midel.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long a freshly started instance takes to serve its first successful {@code GET /users/{id}}, from
+ * launching the process until the first {@code 200}, so JVM startup, the Spring context, Hibernate and the first
+ * request all count.
+ * <p>
+ * Not part of the regular build, run with
+ * {@code mvn test -Dtest=StartupBenchmark -Dbenchmark=true [-Dbenchmark.runs=5] [-Dbenchmark.command="..."]}.
+ * The command defaults to the packaged jar, to compare the build profiles pass for example
+ * {@code java -Dspring.aot.enabled=true -jar target/user-management-restful-1.0.jar} ({@code -P aot}),
+ * {@code java -XX:SharedArchiveFile=target/application.jsa -jar target/user-management-restful-1.0.jar}
+ * ({@code -P cds}) or {@code target/user-management-restful} ({@code -P native}). The application uses its
+ * configured database unless {@code -Dbenchmark.datasource.url} (plus username and password) is given; a first,
+ * unmeasured start creates the user that is read.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class StartupBenchmark {
+
+    private static final String COMMAND = System.getProperty("benchmark.command",
+            "java -jar target/user-management-restful-1.0.jar");
+    private static final int RUNS = Integer.getInteger("benchmark.runs", 5);
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(1))
+            .build();
+
+    @Test
+    void timeToFirstUserRead() throws Exception {
+        long id = seed();
+
+        long[] millis = new long[RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            millis[run] = timeToFirstRead(id);
+        }
+        Arrays.sort(millis);
+
+        System.out.printf("startup: %s%n  %d runs, first GET /users/%d after min %d ms, median %d ms, max %d ms%n",
+                COMMAND, RUNS, id, millis[0], millis[RUNS / 2], millis[RUNS - 1]);
+    }
+
+    private long seed() throws Exception {
+        int port = freePort();
+        Process process = start(port);
+        try {
+            String usersUrl = "http://localhost:" + port + "/users";
+            awaitStatus(URI.create(usersUrl + "?size=1"), process);
+
+            String user = "{\"email\": \"startup-" + System.nanoTime() + "@example.com\", \"firstname\": \"Name\", " +
+                    "\"lastname\": \"Lastname\", \"birthdate\": \"1990-01-01\"}";
+            String body = client.send(HttpRequest.newBuilder(URI.create(usersUrl))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(user))
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString()
+            ).body();
+
+            return Long.parseLong(body.replaceFirst("(?s).*?\"id\":(\\d+).*", "$1"));
+        } finally {
+            stop(process);
+        }
+    }
+
+    private long timeToFirstRead(long id) throws Exception {
+        int port = freePort();
+
+        long start = System.nanoTime();
+        Process process = start(port);
+        try {
+            awaitStatus(URI.create("http://localhost:" + port + "/users/" + id), process);
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        } finally {
+            stop(process);
+        }
+    }
+
+    private Process start(int port) throws IOException {
+        List<String> command = new ArrayList<>(Arrays.asList(COMMAND.trim().split("\\s+")));
+        command.add("--server.port=" + port);
+
+        String url = System.getProperty("benchmark.datasource.url");
+        if (url != null) {
+            command.add("--spring.datasource.url=" + url);
+            command.add("--spring.datasource.username=" + System.getProperty("benchmark.datasource.username", ""));
+            command.add("--spring.datasource.password=" + System.getProperty("benchmark.datasource.password", ""));
+        }
+
+        // The log is kept for failed runs; reading it here would slow the process down.
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(new File("target/startup-benchmark.log")))
+                .start();
+    }
+
+    /**
+     * Polls until the URI answers {@code 200}, the server is not listening during most of the startup.
+     */
+    private void awaitStatus(URI uri, Process process) throws Exception {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("The application exited with " + process.exitValue()
+                        + ", see target/startup-benchmark.log");
+            }
+            try {
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet.
+            }
+            Thread.sleep(5);
+        }
+        throw new IllegalStateException("No 200 from " + uri + " within " + TIMEOUT);
+    }
+
+    private static void stop(Process process) throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly().waitFor();
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.midel.benchmark;
+
+import com.midel.Main;
+import com.midel.reactive.ReactiveMain;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the same mixed CRUD workload against the application with platform and with virtual request threads, and
+ * against the reactive variant ({@link ReactiveMain}, WebFlux over R2DBC).
+ * <p>
+ * Not part of the regular build, run with
+ * {@code mvn test -Dtest=ThreadModeBenchmark -Dbenchmark=true [-Dbenchmark.clients=400] [-Dbenchmark.seconds=30]}.
+ * The in-memory H2 database is used unless {@code -Dbenchmark.datasource.url} and {@code -Dbenchmark.r2dbc.url}
+ * (plus username and password) point to a real PostgreSQL, which is where blocking JDBC calls actually matter.
+ * The virtual thread run is skipped on Java versions below 21.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ThreadModeBenchmark {
+
+    private static final int CLIENTS = Integer.getInteger("benchmark.clients", 400);
+    private static final int SECONDS = Integer.getInteger("benchmark.seconds", 30);
+    private static final int SEED_USERS = 1000;
+
+    @Test
+    void compareThreadModes() throws Exception {
+        List<String> results = new ArrayList<>();
+        results.add(run("platform"));
+
+        if (Runtime.version().feature() >= 21) {
+            results.add(run("virtual"));
+        } else {
+            results.add("virtual: skipped, requires Java 21");
+        }
+
+        results.add(run("reactive"));
+
+        results.forEach(System.out::println);
+    }
+
+    private String run(String mode) throws Exception {
+        try (ConfigurableApplicationContext context = start(mode)) {
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String baseUrl = "http://localhost:" + port + "/users";
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+
+            String runId = mode + System.nanoTime();
+            long firstId = seed(client, baseUrl, runId);
+
+            AtomicInteger created = new AtomicInteger();
+            AtomicLong errors = new AtomicLong();
+            long[][] latencies = new long[CLIENTS][];
+            int[] counts = new int[CLIENTS];
+
+            ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(SECONDS);
+
+            for (int c = 0; c < CLIENTS; c++) {
+                int clientIndex = c;
+                clients.execute(() -> {
+                    long[] samples = new long[1 << 16];
+                    int n = 0;
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+
+                    while (System.nanoTime() < deadline) {
+                        long id = firstId + random.nextInt(SEED_USERS);
+                        HttpRequest request = nextRequest(baseUrl, runId, id, random.nextInt(100), created);
+
+                        long start = System.nanoTime();
+                        try {
+                            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                            if (status >= 500) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+
+                        if (n == samples.length) {
+                            samples = Arrays.copyOf(samples, n * 2);
+                        }
+                        samples[n++] = System.nanoTime() - start;
+                    }
+
+                    latencies[clientIndex] = samples;
+                    counts[clientIndex] = n;
+                });
+            }
+
+            clients.shutdown();
+            clients.awaitTermination(SECONDS + 60L, TimeUnit.SECONDS);
+
+            long[] all = new long[Arrays.stream(counts).sum()];
+            int offset = 0;
+            for (int c = 0; c < CLIENTS; c++) {
+                System.arraycopy(latencies[c], 0, all, offset, counts[c]);
+                offset += counts[c];
+            }
+            Arrays.sort(all);
+
+            return String.format(
+                    "%s: %d clients, %.0f req/s, p50 %.1f ms, p99 %.1f ms, max %.1f ms, %d errors",
+                    mode, CLIENTS, (double) all.length / SECONDS,
+                    percentile(all, 0.50), percentile(all, 0.99), percentile(all, 1.0), errors.get()
+            );
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String mode) {
+        String username = "--spring.datasource.username=" + System.getProperty("benchmark.datasource.username", "sa");
+        String password = "--spring.datasource.password=" + System.getProperty("benchmark.datasource.password", "");
+
+        if (mode.equals("reactive")) {
+            // The r2dbc credentials default to the datasource ones in application.properties.
+            return new SpringApplicationBuilder(ReactiveMain.class).web(WebApplicationType.REACTIVE).run(
+                    "--server.port=0",
+                    "--spring.r2dbc.url=" + System.getProperty("benchmark.r2dbc.url",
+                            "r2dbc:h2:mem:///benchmark-" + mode + ";DB_CLOSE_DELAY=-1"),
+                    username,
+                    password,
+                    "--spring.sql.init.mode=always",
+                    "--spring.sql.init.schema-locations=classpath:reactive-schema.sql",
+                    "--logging.level.root=WARN"
+            );
+        }
+
+        return new SpringApplicationBuilder(Main.class).run(
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + mode.equals("virtual"),
+                // All simulated clients share one address.
+                "--rate-limit.enabled=false",
+                // Compare the thread modes behind the fixed connection limit, not the adaptive one.
+                "--adaptive-limit.enabled=false",
+                "--spring.datasource.url=" + System.getProperty("benchmark.datasource.url",
+                        "jdbc:h2:mem:benchmark-" + mode + ";DB_CLOSE_DELAY=-1"),
+                username,
+                password,
+                "--logging.level.root=WARN"
+        );
+    }
+
+    /**
+     * 70% reads by id, 15% page reads, 10% partial updates and 5% creates.
+     */
+    private static HttpRequest nextRequest(String baseUrl, String runId, long id, int roll, AtomicInteger created) {
+        if (roll < 70) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/" + id)).GET().build();
+        }
+        if (roll < 85) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + "?page=" + (id % 50) + "&size=20&count=estimate")).GET().build();
+        }
+        if (roll < 95) {
+            return json(HttpRequest.newBuilder(URI.create(baseUrl + "/" + id)), "PATCH",
+                    "{\"address\": \"Street " + roll + "\"}");
+        }
+        return json(HttpRequest.newBuilder(URI.create(baseUrl)), "POST",
+                user(runId + "-new-" + created.incrementAndGet()));
+    }
+
+    private static long seed(HttpClient client, String baseUrl, String runId) throws Exception {
+        StringBuilder users = new StringBuilder("[");
+        for (int i = 0; i < SEED_USERS; i++) {
+            users.append(i == 0 ? "" : ",").append(user(runId + "-" + i));
+        }
+        users.append("]");
+
+        String body = client.send(
+                json(HttpRequest.newBuilder(URI.create(baseUrl + "/batch")), "POST", users.toString()),
+                HttpResponse.BodyHandlers.ofString()
+        ).body();
+
+        // The ids of a batch are consecutive, the first one is enough to address all seeded users.
+        String firstId = body.replaceFirst("(?s).*?\"id\":(\\d+).*", "$1");
+        return Long.parseLong(firstId);
+    }
+
+    private static String user(String key) {
+        return "{\"email\": \"" + key + "@example.com\", \"firstname\": \"Name\", \"lastname\": \"Lastname\", " +
+                "\"birthdate\": \"1990-01-01\"}";
+    }
+
+    private static HttpRequest json(HttpRequest.Builder builder, String method, String body) {
+        return builder.header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,48 @@
+package com.midel.benchmark;
+
+import com.midel.entity.User;
+import com.midel.utils.UserUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link UserUtils#validateUser(User, boolean, int)} for a valid user and for one failing every check.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserValidationBenchmark {
+
+    private static final int ALLOWED_AGE = 18;
+
+    private User validUser;
+    private User invalidUser;
+
+    @Setup
+    public void setUp() {
+        validUser = new User(
+                null, "test@example.com", "Name", "Lastname",
+                LocalDate.of(2000, 1, 1), "Address", "132456789"
+        );
+        invalidUser = new User(
+                null, "test@@example.com", "", " ",
+                LocalDate.now(), null, null
+        );
+    }
+
+    @Benchmark
+    public List<String> validUser() {
+        return UserUtils.validateUser(validUser, false, ALLOWED_AGE);
+    }
+
+    @Benchmark
+    public List<String> invalidUser() {
+        return UserUtils.validateUser(invalidUser, false, ALLOWED_AGE);
+    }
+}
@@ -0,0 +1,59 @@
+package com.midel.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import com.midel.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * {@code POST /users} through the group commit writer, which inserts with a JDBC batch instead of the entity manager.
+ */
+@SpringBootTest(properties = "group-commit.enabled=true")
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+class UserControllerGroupCommitTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void createUser_returnsETagOfInsertedRow() throws Exception {
+        // Arrange
+        String user = """
+                {"email":"group@example.com","firstname":"Name","lastname":"Lastname","birthdate":"2000-01-01"}
+                """;
+
+        // Act
+        MvcResult created = mockMvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON).content(user))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                .andReturn();
+
+        // Assert
+        Number id = JsonPath.read(created.getResponse().getContentAsString(), "$.data.id");
+        mockMvc.perform(get("/users/{id}", id.longValue()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+    }
+}
@@ -0,0 +1,161 @@
+package com.midel.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import com.midel.entity.User;
+import com.midel.filter.StatementCountFilter;
+import com.midel.repository.UserRepository;
+import com.midel.service.UserService;
+import com.midel.service.UserServiceImpl;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+/**
+ * Runs each endpoint against an in-memory database and fails when it needs more SQL statements than its budget,
+ * so an extra round-trip or an N+1 query breaks the build. Budgets are the current counts: lower them when an
+ * endpoint gets cheaper, raise them only on purpose.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+class UserControllerQueryBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Long id;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAllInBatch();
+        cacheManager.getCache(UserServiceImpl.USER_CACHE).clear();
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            users.add(new User(null, "user" + i + "@example.com", "Name", "Lastname" + i, LocalDate.of(1990, 1, 1).plusDays(i), null, null));
+        }
+        id = userService.createUsers(users).get(0).getId();
+    }
+
+    @Test
+    void getUser() throws Exception {
+        assertWithinBudget(get("/users/{id}", id), 1);
+    }
+
+    @Test
+    void getUsers_page() throws Exception {
+        assertWithinBudget(get("/users").param("size", "20"), 2);
+    }
+
+    @Test
+    void getUsers_cursor() throws Exception {
+        MvcResult firstPage = mockMvc.perform(get("/users").param("after", "").param("size", "20")).andReturn();
+        String next = JsonPath.read(firstPage.getResponse().getContentAsString(), "$.links.next");
+
+        assertWithinBudget(get(URI.create(next)), 1);
+    }
+
+    @Test
+    void getUsers_filtered() throws Exception {
+        assertWithinBudget(get("/users").param("lastname", "lastname1").param("domain", "example.com"), 2);
+    }
+
+    @Test
+    void searchUsers() throws Exception {
+        assertWithinBudget(get("/users/search").param("q", "lastname12"), 1);
+    }
+
+    @Test
+    void createUser() throws Exception {
+        assertWithinBudget(post("/users").contentType(MediaType.APPLICATION_JSON).content(userJson("new@example.com")), 1);
+    }
+
+    @Test
+    void createUsers_batch() throws Exception {
+        String batch = "[" + userJson("new1@example.com") + "," + userJson("new2@example.com") + "]";
+        assertWithinBudget(post("/users/batch").contentType(MediaType.APPLICATION_JSON).content(batch), 1);
+    }
+
+    @Test
+    void updateUser() throws Exception {
+        assertWithinBudget(put("/users/{id}", id).contentType(MediaType.APPLICATION_JSON).content(userJson("put@example.com")), 2);
+    }
+
+    @Test
+    void partiallyUpdateUser() throws Exception {
+        assertWithinBudget(patch("/users/{id}", id).contentType(MediaType.APPLICATION_JSON).content("{\"lastname\":\"Patched\"}"), 2);
+    }
+
+    @Test
+    void deleteUser() throws Exception {
+        // deleteById loads the entity before removing it, so entity listeners see it.
+        assertWithinBudget(delete("/users/{id}", id), 2);
+    }
+
+    @Test
+    void deleteUsers_byIds() throws Exception {
+        assertWithinBudget(delete("/users").contentType(MediaType.APPLICATION_JSON).content("[" + id + "," + (id + 1) + "]"), 1);
+    }
+
+    @Test
+    void statementCount_recordedPerEndpoint() throws Exception {
+        double before = statementsRecorded("GET", "/users/{id}");
+
+        MvcResult result = mockMvc.perform(get("/users/{id}", id)).andReturn();
+
+        int statements = Integer.parseInt(result.getResponse().getHeader(StatementCountFilter.STATEMENT_COUNT_HEADER));
+        assertEquals(1, statements);
+        assertEquals(before + statements, statementsRecorded("GET", "/users/{id}"));
+    }
+
+    private void assertWithinBudget(RequestBuilder request, int budget) throws Exception {
+        MvcResult result = mockMvc.perform(request).andReturn();
+        assertTrue(result.getResponse().getStatus() < 400, result.getResponse().getContentAsString());
+
+        int statements = Integer.parseInt(result.getResponse().getHeader(StatementCountFilter.STATEMENT_COUNT_HEADER));
+        assertTrue(statements <= budget, statements + " statements, budget is " + budget);
+    }
+
+    private double statementsRecorded(String method, String uri) {
+        DistributionSummary summary = meterRegistry.find("http.server.requests.statements")
+                .tag("method", method)
+                .tag("uri", uri)
+                .summary();
+        return summary == null ? 0 : summary.totalAmount();
+    }
+
+    private static String userJson(String email) {
+        return "{\"email\":\"" + email + "\",\"firstname\":\"Name\",\"lastname\":\"Lastname\",\"birthdate\":\"2000-01-01\"}";
+    }
+}
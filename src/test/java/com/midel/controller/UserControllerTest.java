@@ -6,6 +6,14 @@ import com.midel.entity.User;
 import com.midel.exception.AlreadyExistException;
 import com.midel.exception.InvalidArgumentException;
 import com.midel.exception.NotFoundException;
+import com.midel.exception.PreconditionFailedException;
+import com.midel.exception.ServiceUnavailableException;
+import com.midel.handler.GlobalExceptionHandler;
+import com.midel.response.BatchItemResult;
+import com.midel.response.ImportResponse;
+import com.midel.service.CountMode;
+import com.midel.service.DataFormat;
+import com.midel.service.UserFilter;
 import com.midel.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,16 +21,23 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.List;
 
+import static org.hamcrest.Matchers.startsWith;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @ExtendWith(MockitoExtension.class)
 class UserControllerTest {
@@ -39,7 +54,9 @@ class UserControllerTest {
 
     @BeforeEach
     void setUp() {
-        mockMvc = MockMvcBuilders.standaloneSetup(userController).build();
+        mockMvc = MockMvcBuilders.standaloneSetup(userController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
         objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
     }
 
@@ -47,7 +64,7 @@ class UserControllerTest {
     void getAllUsers_validParameters() throws Exception {
         mockMvc.perform(get("/users")).andExpect(status().isOk());
 
-        verify(userService, times(1)).getUsersWithPagination(0,20, null, null);
+        verify(userService, times(1)).getUsersWithPagination(0,20, UserFilter.NONE, CountMode.EXACT, null);
     }
 
     @Test
@@ -56,7 +73,7 @@ class UserControllerTest {
         int page = -1;
         int size = -5;
 
-        when(userService.getUsersWithPagination(page, size, null, null)).thenThrow(
+        when(userService.getUsersWithPagination(page, size, UserFilter.NONE, CountMode.EXACT, null)).thenThrow(
                 new InvalidArgumentException()
         );
 
@@ -66,7 +83,111 @@ class UserControllerTest {
                         .param("size", String.valueOf(size))
         ).andExpect(status().isBadRequest());
 
-        verify(userService, times(1)).getUsersWithPagination(page,size, null, null);
+        verify(userService, times(1)).getUsersWithPagination(page,size, UserFilter.NONE, CountMode.EXACT, null);
+    }
+
+    @Test
+    void getUserList_withoutCount() throws Exception {
+        mockMvc.perform(get("/users").param("count", "none")).andExpect(status().isOk());
+
+        verify(userService, times(1)).getUsersWithPagination(0, 20, UserFilter.NONE, CountMode.NONE, null);
+    }
+
+    @Test
+    void getUserList_withFields() throws Exception {
+        mockMvc.perform(get("/users").param("fields", "email, id,email")).andExpect(status().isOk());
+
+        verify(userService, times(1)).getUsersWithPagination(0, 20, UserFilter.NONE, CountMode.EXACT, List.of("id", "email"));
+    }
+
+    @Test
+    void getUserList_withFilters() throws Exception {
+        mockMvc.perform(
+                get("/users")
+                        .param("from", "1990-01-01")
+                        .param("to", "2000-01-01")
+                        .param("lastname", "Smi")
+                        .param("domain", "example.com")
+        ).andExpect(status().isOk());
+
+        verify(userService, times(1)).getUsersWithPagination(
+                0, 20,
+                UserFilter.of(LocalDate.of(1990, 1, 1), LocalDate.of(2000, 1, 1), "Smi", "example.com"),
+                CountMode.EXACT, null
+        );
+    }
+
+    @Test
+    void getUserList_blankFilters_ignored() throws Exception {
+        mockMvc.perform(get("/users").param("lastname", "").param("domain", " ")).andExpect(status().isOk());
+
+        verify(userService, times(1)).getUsersWithPagination(0, 20, UserFilter.NONE, CountMode.EXACT, null);
+    }
+
+    @Test
+    void searchUsers_validParameters() throws Exception {
+        mockMvc.perform(get("/users/search").param("q", "jon smith")).andExpect(status().isOk());
+
+        verify(userService, times(1)).searchUsers("jon smith", 20);
+    }
+
+    @Test
+    void searchUsers_invalidParameters() throws Exception {
+        when(userService.searchUsers(null, 20)).thenThrow(new InvalidArgumentException("The 'q' value must not be empty."));
+
+        mockMvc.perform(get("/users/search"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message[0]").value("The 'q' value must not be empty."));
+    }
+
+    @Test
+    void getUserList_unknownField() throws Exception {
+        mockMvc.perform(get("/users").param("fields", "id,password"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message[0]").value(startsWith("Unknown field 'password'.")));
+
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void getUserList_unknownCountMode() throws Exception {
+        mockMvc.perform(get("/users").param("count", "approximate")).andExpect(status().isBadRequest());
+
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void getUserList_withCursor_usesKeysetPagination() throws Exception {
+        mockMvc.perform(get("/users").param("after", "").param("size", "10"))
+                .andExpect(status().isOk());
+
+        verify(userService, times(1)).getUsersWithCursor("", 10, UserFilter.NONE, null);
+        verify(userService, never()).getUsersWithPagination(anyInt(), anyInt(), any(), any(), any());
+    }
+
+    @Test
+    void exportUsers_streamsBody() throws Exception {
+        StreamingResponseBody body = out -> out.write("{\"id\":1}\n".getBytes(StandardCharsets.UTF_8));
+
+        when(userService.exportUsers(null, null, DataFormat.NDJSON)).thenReturn(body);
+
+        MvcResult result = mockMvc.perform(get("/users/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string("{\"id\":1}\n"));
+    }
+
+    @Test
+    void exportUsers_unknownFormat() throws Exception {
+        mockMvc.perform(get("/users/export").param("format", "xml"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message[0]").value("The 'format' value must be one of: ndjson, csv."));
+
+        verifyNoInteractions(userService);
     }
 
     @Test
@@ -93,6 +214,62 @@ class UserControllerTest {
         verify(userService, times(1)).getUserById(id);
     }
 
+    @Test
+    void getUserById_withFields() throws Exception {
+
+        long id = 1;
+
+        User user = new User(
+                id, "test@example.com", "Name", "Lastname",
+                LocalDate.of(2000, 1, 1), "Address", "132456789"
+        );
+
+        when(userService.getUserById(id)).thenReturn(user);
+
+        mockMvc.perform(get("/users/{id}", id).param("fields", "id,email"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.id").value(id))
+                .andExpect(jsonPath("$.data.email").value("test@example.com"))
+                .andExpect(jsonPath("$.data.lastname").doesNotExist())
+                .andExpect(jsonPath("$.data.address").doesNotExist());
+    }
+
+    @Test
+    void getUserById_returnsETag() throws Exception {
+
+        long id = 1;
+
+        User user = new User(
+                id, "test@example.com", "Name", "Lastname",
+                LocalDate.of(2000, 1, 1), null, null, 4L
+        );
+
+        when(userService.getUserById(id)).thenReturn(user);
+
+        mockMvc.perform(get("/users/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(jsonPath("$.data.version").doesNotExist());
+    }
+
+    @Test
+    void getUserById_ifNoneMatch_notModified() throws Exception {
+
+        long id = 1;
+
+        User user = new User(
+                id, "test@example.com", "Name", "Lastname",
+                LocalDate.of(2000, 1, 1), null, null, 4L
+        );
+
+        when(userService.getUserById(id)).thenReturn(user);
+
+        mockMvc.perform(get("/users/{id}", id).header(HttpHeaders.IF_NONE_MATCH, "\"3\", W/\"4\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(content().string(""));
+    }
+
     @Test
     void getUserById_userNotFound() throws Exception {
 
@@ -146,6 +323,91 @@ class UserControllerTest {
         verify(userService, times(1)).createUser(any(User.class));
     }
 
+    @Test
+    void createUser_queueFull_serviceUnavailable() throws Exception {
+
+        User user = new User(
+                null, "test@example.com", "Name", "Lastname",
+                LocalDate.of(2000, 1, 1), null, null
+        );
+
+        when(userService.createUser(any(User.class))).thenThrow(new ServiceUnavailableException("busy"));
+
+        mockMvc.perform(
+                        post("/users")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(user))
+                ).andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+    }
+
+    @Test
+    void getUserById_serviceBusy_returnsServiceUnavailable() throws Exception {
+
+        when(userService.getUserById(1L)).thenThrow(new ServiceUnavailableException("busy"));
+
+        mockMvc.perform(get("/users/{id}", 1L))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                .andExpect(jsonPath("$.message[0]").value("busy"));
+    }
+
+    @Test
+    void createUsers_returnsResultPerItem() throws Exception {
+
+        User user = new User(
+                null, "test@example.com", "Name", "Lastname",
+                LocalDate.of(2000, 1, 1), null, null
+        );
+
+        when(userService.createUsers(anyList())).thenReturn(List.of(
+                BatchItemResult.created(0, 1L),
+                BatchItemResult.failed(1, "A user with this email already exists.")
+        ));
+
+        mockMvc.perform(
+                        post("/users/batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(List.of(user, user)))
+                ).andExpect(status().isOk())
+                .andExpect(jsonPath("$.summary.succeeded").value(1))
+                .andExpect(jsonPath("$.summary.failed").value(1))
+                .andExpect(jsonPath("$.data[0].id").value(1))
+                .andExpect(jsonPath("$.data[1].status").value(400));
+
+        verify(userService, times(1)).createUsers(anyList());
+    }
+
+    @Test
+    void importUsers_csv() throws Exception {
+
+        String csv = "email,firstname,lastname,birthdate\ntest@example.com,Name,Lastname,2000-01-01\n";
+
+        when(userService.importUsers(any(InputStream.class), eq(DataFormat.CSV)))
+                .thenReturn(new ImportResponse(HttpStatus.OK, 1, 1, 0, List.of()));
+
+        mockMvc.perform(
+                        post("/users/import")
+                                .contentType("text/csv")
+                                .content(csv)
+                ).andExpect(status().isOk())
+                .andExpect(jsonPath("$.summary.imported").value(1));
+
+        verify(userService, times(1)).importUsers(any(InputStream.class), eq(DataFormat.CSV));
+    }
+
+    @Test
+    void importUsers_unsupportedContentType() throws Exception {
+
+        mockMvc.perform(
+                post("/users/import")
+                        .contentType(MediaType.APPLICATION_XML)
+                        .content("<users/>")
+        ).andExpect(status().isBadRequest());
+
+        verifyNoInteractions(userService);
+    }
+
     @Test
     void deleteUser() throws Exception {
         long id = 1;
@@ -157,6 +419,27 @@ class UserControllerTest {
         verify(userService, times(1)).deleteUser(id);
     }
 
+    @Test
+    void deleteUsers_byIds() throws Exception {
+        when(userService.deleteUsers(List.of(1L, 2L), null, null)).thenReturn(2L);
+
+        mockMvc.perform(
+                        delete("/users")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("[1, 2]")
+                ).andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(2));
+
+        verify(userService, times(1)).deleteUsers(List.of(1L, 2L), null, null);
+    }
+
+    @Test
+    void deleteUsers_withoutCriteria() throws Exception {
+        when(userService.deleteUsers(null, null, null)).thenThrow(new InvalidArgumentException());
+
+        mockMvc.perform(delete("/users")).andExpect(status().isBadRequest());
+    }
+
     @Test
     void updateUser_validParameters() throws Exception {
 
@@ -167,7 +450,7 @@ class UserControllerTest {
                 LocalDate.of(2000, 1, 1), null, null
         );
 
-        when(userService.updateUser(eq(id), any(User.class)))
+        when(userService.updateUser(eq(id), any(User.class), isNull()))
                 .thenReturn(updateUser);
 
         mockMvc.perform(
@@ -178,7 +461,7 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.data.id").value(id))
                 .andExpect(jsonPath("$.data.email").value("test1@example.com"));
 
-        verify(userService, times(1)).updateUser(eq(id), any(User.class));
+        verify(userService, times(1)).updateUser(eq(id), any(User.class), isNull());
     }
 
     @Test
@@ -191,7 +474,7 @@ class UserControllerTest {
                 LocalDate.of(2024, 1, 1), null, null
         );
 
-        when(userService.updateUser(eq(id), any(User.class)))
+        when(userService.updateUser(eq(id), any(User.class), isNull()))
                 .thenThrow(new InvalidArgumentException());
 
         mockMvc.perform(
@@ -200,7 +483,60 @@ class UserControllerTest {
                                 .content(objectMapper.writeValueAsString(updateUser))
                 ).andExpect(status().isBadRequest());
 
-        verify(userService, times(1)).updateUser(eq(id), any(User.class));
+        verify(userService, times(1)).updateUser(eq(id), any(User.class), isNull());
+    }
+
+    @Test
+    void updateUser_ifMatch() throws Exception {
+
+        long id = 1;
+
+        User updateUser = new User(
+                id, "test1@example.com", "Name", "Lastname",
+                LocalDate.of(2000, 1, 1), null, null, 5L
+        );
+
+        when(userService.updateUser(eq(id), any(User.class), eq(4L)))
+                .thenReturn(updateUser);
+
+        mockMvc.perform(
+                put("/users/{id}", id)
+                        .header(HttpHeaders.IF_MATCH, "\"4\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateUser))
+        ).andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"5\""));
+
+        verify(userService, times(1)).updateUser(eq(id), any(User.class), eq(4L));
+    }
+
+    @Test
+    void partiallyUpdateUser_ifMatchStale() throws Exception {
+
+        long id = 1;
+
+        when(userService.partiallyUpdateUser(eq(id), any(User.class), eq(3L)))
+                .thenThrow(new PreconditionFailedException());
+
+        mockMvc.perform(
+                patch("/users/{id}", id)
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstname\": \"Name\"}")
+        ).andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void updateUser_ifMatchMalformed() throws Exception {
+
+        mockMvc.perform(
+                put("/users/{id}", 1)
+                        .header(HttpHeaders.IF_MATCH, "4")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}")
+        ).andExpect(status().isBadRequest());
+
+        verifyNoInteractions(userService);
     }
 
     @Test
@@ -213,7 +549,7 @@ class UserControllerTest {
                 LocalDate.of(2024, 1, 1), null, null
         );
 
-        when(userService.updateUser(eq(id), any(User.class)))
+        when(userService.updateUser(eq(id), any(User.class), isNull()))
                 .thenThrow(new NotFoundException());
 
         mockMvc.perform(
@@ -222,7 +558,7 @@ class UserControllerTest {
                         .content(objectMapper.writeValueAsString(updateUser))
         ).andExpect(status().isNotFound());
 
-        verify(userService, times(1)).updateUser(eq(id), any(User.class));
+        verify(userService, times(1)).updateUser(eq(id), any(User.class), isNull());
     }
 
     @Test
@@ -240,7 +576,7 @@ class UserControllerTest {
                 null, null, null
         );
 
-        when(userService.partiallyUpdateUser(eq(id), any(User.class)))
+        when(userService.partiallyUpdateUser(eq(id), any(User.class), isNull()))
                 .then(invocationOnMock -> {
                     user.setEmail(updateUser.getEmail());
                     return user;
@@ -254,7 +590,7 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.data.id").value(id))
                 .andExpect(jsonPath("$.data.email").value("test_update@example.com"));
 
-        verify(userService, times(1)).partiallyUpdateUser(eq(id), any(User.class));
+        verify(userService, times(1)).partiallyUpdateUser(eq(id), any(User.class), isNull());
     }
 
     @Test
@@ -267,7 +603,7 @@ class UserControllerTest {
                 null, null, null
         );
 
-        when(userService.partiallyUpdateUser(eq(id), any(User.class)))
+        when(userService.partiallyUpdateUser(eq(id), any(User.class), isNull()))
                 .thenThrow(new InvalidArgumentException());
 
         mockMvc.perform(
@@ -276,7 +612,7 @@ class UserControllerTest {
                         .content(objectMapper.writeValueAsString(updateUser))
         ).andExpect(status().isBadRequest());
 
-        verify(userService, times(1)).partiallyUpdateUser(eq(id), any(User.class));
+        verify(userService, times(1)).partiallyUpdateUser(eq(id), any(User.class), isNull());
     }
 
     @Test
@@ -289,7 +625,7 @@ class UserControllerTest {
                 null, null, null
         );
 
-        when(userService.partiallyUpdateUser(eq(id), any(User.class)))
+        when(userService.partiallyUpdateUser(eq(id), any(User.class), isNull()))
                 .thenThrow(new NotFoundException());
 
         mockMvc.perform(
@@ -298,6 +634,6 @@ class UserControllerTest {
                         .content(objectMapper.writeValueAsString(updateUser))
         ).andExpect(status().isNotFound());
 
-        verify(userService, times(1)).partiallyUpdateUser(eq(id), any(User.class));
+        verify(userService, times(1)).partiallyUpdateUser(eq(id), any(User.class), isNull());
     }
 }
\ No newline at end of file
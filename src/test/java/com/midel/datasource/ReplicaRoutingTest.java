@@ -0,0 +1,143 @@
+package com.midel.datasource;
+
+import com.midel.filter.ReadYourWritesFilter;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Two separate in-memory H2 databases act as primary and replica. Nothing replicates between them, so the
+ * database a request was served from can be told by its result.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ReplicaRoutingTest.PRIMARY_URL,
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "replica.enabled=true",
+        "replica.urls=" + ReplicaRoutingTest.REPLICA_URL,
+        "replica.read-your-writes-window=1m"
+})
+@AutoConfigureMockMvc
+class ReplicaRoutingTest {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1";
+
+    private static final JdbcTemplate PRIMARY = new JdbcTemplate(new DriverManagerDataSource(PRIMARY_URL, "sa", ""));
+    private static final JdbcTemplate REPLICA = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @TestConfiguration
+    static class ReplicaSchema {
+
+        /**
+         * Copies the schema Hibernate created on the primary before the application starts reading.
+         */
+        @Bean
+        InitializingBean replicaSchema(EntityManagerFactory entityManagerFactory) {
+            return () -> PRIMARY.queryForList("SCRIPT NODATA", String.class).stream()
+                    .filter(statement -> !statement.startsWith("--"))
+                    .forEach(REPLICA::execute);
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        PRIMARY.update("DELETE FROM _user");
+        REPLICA.update("DELETE FROM _user");
+    }
+
+    @Test
+    void listReads_servedByReplica() throws Exception {
+        // Arrange
+        insertUser(REPLICA, 1000, "replica@example.com", "Replica");
+
+        // Act & Assert
+        mockMvc.perform(get("/users").param("lastname", "replica").header(ReadYourWritesFilter.CLIENT_ID_HEADER, "reader"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.pagination.total_elements").value(1));
+    }
+
+    @Test
+    void getById_servedByPrimary() throws Exception {
+        // Arrange
+        insertUser(PRIMARY, 2000, "primary@example.com", "Primary");
+
+        // Act & Assert
+        mockMvc.perform(get("/users/{id}", 2000).header(ReadYourWritesFilter.CLIENT_ID_HEADER, "reader"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.email").value("primary@example.com"));
+    }
+
+    @Test
+    void getById_afterDelete_staleReplicaRowNotCached() throws Exception {
+        // Arrange: the replica has not applied the delete yet
+        insertUser(PRIMARY, 3000, "deleted@example.com", "Deleted");
+        insertUser(REPLICA, 3000, "deleted@example.com", "Deleted");
+
+        mockMvc.perform(delete("/users/{id}", 3000).header(ReadYourWritesFilter.CLIENT_ID_HEADER, "writer"))
+                .andExpect(status().is2xxSuccessful());
+
+        // Act & Assert: another client's read must not bring the row back, for it or for the writer
+        mockMvc.perform(get("/users/{id}", 3000).header(ReadYourWritesFilter.CLIENT_ID_HEADER, "other"))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/users/{id}", 3000).header(ReadYourWritesFilter.CLIENT_ID_HEADER, "writer"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void writes_goToPrimary() throws Exception {
+        // Act
+        createUser("writer", "primary@example.com");
+
+        // Assert
+        assertEquals(1, PRIMARY.queryForObject("SELECT COUNT(*) FROM _user", Integer.class));
+        assertEquals(0, REPLICA.queryForObject("SELECT COUNT(*) FROM _user", Integer.class));
+    }
+
+    @Test
+    void readsAfterWrite_servedByPrimaryForThatClientOnly() throws Exception {
+        // Arrange
+        createUser("writer", "fresh@example.com");
+
+        // Act & Assert
+        mockMvc.perform(get("/users").param("lastname", "fresh").header(ReadYourWritesFilter.CLIENT_ID_HEADER, "writer"))
+                .andExpect(jsonPath("$.pagination.total_elements").value(1));
+
+        mockMvc.perform(get("/users").param("lastname", "fresh").header(ReadYourWritesFilter.CLIENT_ID_HEADER, "other"))
+                .andExpect(jsonPath("$.pagination.total_elements").value(0));
+    }
+
+    private static void insertUser(JdbcTemplate database, long id, String email, String lastname) {
+        database.update("INSERT INTO _user (id, email, firstname, lastname, birth_date, lastname_key, email_domain, version) "
+                + "VALUES (?, ?, 'Name', ?, DATE '1990-01-01', ?, 'example.com', 0)", id, email, lastname, lastname.toLowerCase());
+    }
+
+    private void createUser(String client, String email) throws Exception {
+        mockMvc.perform(post("/users")
+                        .header(ReadYourWritesFilter.CLIENT_ID_HEADER, client)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + email + "\",\"firstname\":\"Name\",\"lastname\":\"Fresh\",\"birthdate\":\"1990-01-01\"}"))
+                .andExpect(status().isCreated());
+    }
+}
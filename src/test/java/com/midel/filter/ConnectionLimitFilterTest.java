@@ -0,0 +1,107 @@
+package com.midel.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConnectionLimitFilterTest {
+
+    @Test
+    void requestWithinLimit_passesThrough() throws Exception {
+        // Arrange
+        ConnectionLimitFilter filter = new ConnectionLimitFilter(new ObjectMapper(), 1, Duration.ZERO);
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest("GET", "/users/1"), response, chain);
+
+        // Assert
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+    }
+
+    @Test
+    void requestBeyondLimit_rejectedWithServiceUnavailable() throws Exception {
+        // Arrange
+        ConnectionLimitFilter filter = new ConnectionLimitFilter(new ObjectMapper(), 1, Duration.ZERO);
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        MockFilterChain innerChain = new MockFilterChain();
+
+        // Act: a second request arrives while the only permit is held by the first one
+        filter.doFilter(
+                new MockHttpServletRequest("GET", "/users/1"),
+                new MockHttpServletResponse(),
+                (request, response) -> filter.doFilter(new MockHttpServletRequest("GET", "/users/2"), rejected, innerChain)
+        );
+
+        // Assert
+        assertThat(innerChain.getRequest()).isNull();
+        assertThat(rejected.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value());
+        assertThat(rejected.getContentAsString()).contains(ConnectionLimitFilter.LIMIT_EXCEEDED_MESSAGE);
+        assertThat(rejected.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+    }
+
+    @Test
+    void actuatorRequest_notLimited() throws Exception {
+        // Arrange
+        ConnectionLimitFilter filter = new ConnectionLimitFilter(new ObjectMapper(), 1, Duration.ZERO);
+        MockHttpServletResponse probe = new MockHttpServletResponse();
+        MockFilterChain innerChain = new MockFilterChain();
+
+        // Act: a health probe arrives while the only permit is held by a /users request
+        filter.doFilter(
+                new MockHttpServletRequest("GET", "/users/1"),
+                new MockHttpServletResponse(),
+                (request, response) -> filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), probe, innerChain)
+        );
+
+        // Assert
+        assertThat(innerChain.getRequest()).isNotNull();
+        assertThat(probe.getStatus()).isEqualTo(HttpStatus.OK.value());
+    }
+
+    @Test
+    void asyncRequest_holdsPermitUntilCompleted() throws Exception {
+        // Arrange
+        ConnectionLimitFilter filter = new ConnectionLimitFilter(new ObjectMapper(), 1, Duration.ZERO);
+        MockHttpServletRequest export = new MockHttpServletRequest("GET", "/users/export");
+        export.setAsyncSupported(true);
+        filter.doFilter(export, new MockHttpServletResponse(), (request, response) -> request.startAsync());
+
+        MockHttpServletResponse duringExport = new MockHttpServletResponse();
+        MockHttpServletResponse afterExport = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest("GET", "/users/1"), duringExport, new MockFilterChain());
+        export.getAsyncContext().complete();
+        filter.doFilter(new MockHttpServletRequest("GET", "/users/1"), afterExport, new MockFilterChain());
+
+        // Assert
+        assertThat(duringExport.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value());
+        assertThat(afterExport.getStatus()).isEqualTo(HttpStatus.OK.value());
+    }
+
+    @Test
+    void permitReleasedAfterRequest() throws Exception {
+        // Arrange
+        ConnectionLimitFilter filter = new ConnectionLimitFilter(new ObjectMapper(), 1, Duration.ZERO);
+        filter.doFilter(new MockHttpServletRequest("GET", "/users/1"), new MockHttpServletResponse(), new MockFilterChain());
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest("GET", "/users/2"), response, new MockFilterChain());
+
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+    }
+}
@@ -0,0 +1,91 @@
+package com.midel.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveLimitTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void tryAcquire_beyondLimit_refused() {
+        // Arrange
+        AdaptiveLimit limit = new AdaptiveLimit(2, 1, 10, Duration.ofMillis(100), 0.5);
+
+        // Act & Assert
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+        assertEquals(2, limit.getInFlight());
+
+        limit.release(FAST, false);
+        assertTrue(limit.tryAcquire());
+    }
+
+    @Test
+    void release_fastCallsWhileBusy_raiseLimit() {
+        // Arrange
+        AdaptiveLimit limit = new AdaptiveLimit(4, 1, 10, Duration.ofMillis(100), 0.5);
+
+        // Act: 4 full rounds at the limit add 1/limit each
+        for (int round = 0; round < 8; round++) {
+            int admitted = 0;
+            while (limit.tryAcquire()) {
+                admitted++;
+            }
+            for (int i = 0; i < admitted; i++) {
+                limit.release(FAST, false);
+            }
+        }
+
+        // Assert
+        assertTrue(limit.getLimit() > 4, "limit " + limit.getLimit());
+        assertTrue(limit.getLimit() <= 10);
+    }
+
+    @Test
+    void release_fastCallsWhileIdle_keepLimit() {
+        // Arrange
+        AdaptiveLimit limit = new AdaptiveLimit(4, 1, 10, Duration.ofMillis(100), 0.5);
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            limit.tryAcquire();
+            limit.release(FAST, false);
+        }
+
+        // Assert
+        assertEquals(4, limit.getLimit());
+    }
+
+    @Test
+    void release_slowOrOverloadedCalls_lowerLimitOncePerWindow() throws InterruptedException {
+        // Arrange
+        AdaptiveLimit limit = new AdaptiveLimit(8, 3, 10, Duration.ofMillis(50), 0.5);
+
+        // Act & Assert: calls that overlapped only count once
+        for (int i = 0; i < 3; i++) {
+            limit.tryAcquire();
+        }
+        limit.release(SLOW, false);
+        limit.release(SLOW, false);
+        limit.release(FAST, true);
+        assertEquals(4, limit.getLimit());
+
+        Thread.sleep(60);
+        limit.tryAcquire();
+        limit.release(FAST, true);
+        assertEquals(3, limit.getLimit());
+    }
+
+    @Test
+    void constructor_inconsistentLimits_rejected() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveLimit(1, 2, 10, Duration.ofMillis(100), 0.5));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveLimit(2, 1, 10, Duration.ofMillis(100), 1.0));
+    }
+}
@@ -0,0 +1,158 @@
+package com.midel.limit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.midel.entity.User;
+import com.midel.exception.ServiceUnavailableException;
+import com.midel.repository.UserRepository;
+import com.midel.service.EmailIndex;
+import com.midel.service.UserSearchIndex;
+import com.midel.service.UserService;
+import com.midel.service.UserServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@SpringJUnitConfig
+@TestPropertySource(properties = {
+        "server.address=localhost", "server.port=8080", "allowed-age=18", "batch-size=500", "fetch-size=1000", "import.max-record-length=65536",
+        "adaptive-limit.enabled=true", "adaptive-limit.initial-limit=1", "adaptive-limit.min-limit=1",
+        "adaptive-limit.max-limit=1", "adaptive-limit.latency-threshold=10s", "adaptive-limit.backoff-ratio=0.5"
+})
+class ConcurrencyLimitAspectTest {
+
+    @Configuration
+    @EnableAspectJAutoProxy
+    @Import({UserServiceImpl.class, ConcurrencyLimitAspect.class})
+    static class LimitTestConfig {
+        @Bean
+        public MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        /**
+         * Converts {@code 10s} to a {@link java.time.Duration} as Spring Boot does.
+         */
+        @Bean
+        public static ConversionService conversionService() {
+            return ApplicationConversionService.getSharedInstance();
+        }
+    }
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @MockBean
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private CacheManager cacheManager;
+
+    @MockBean
+    private EmailIndex emailIndex;
+
+    @MockBean
+    private UserSearchIndex searchIndex;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void callBeyondLimit_rejectedImmediately() throws Exception {
+        // Arrange
+        CountDownLatch inside = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userRepository.findById(1L)).thenAnswer(invocation -> {
+            inside.countDown();
+            release.await();
+            return Optional.of(new User(1L, "test@example.com", "Name", "Lastname", LocalDate.of(2000, 1, 1), null, null));
+        });
+
+        CompletableFuture<User> first = CompletableFuture.supplyAsync(() -> userService.getUserById(1L));
+        assertTrue(inside.await(5, TimeUnit.SECONDS));
+
+        // Act & Assert
+        assertEquals(1, meterRegistry.get(ConcurrencyLimitAspect.IN_FLIGHT_METRIC_NAME).gauge().value());
+        assertThrows(ServiceUnavailableException.class, () -> userService.getUserById(1L));
+        assertEquals(1, meterRegistry.get(ConcurrencyLimitAspect.REJECTED_METRIC_NAME).counter().count());
+
+        release.countDown();
+        assertNotNull(first.get(5, TimeUnit.SECONDS));
+        assertEquals(0, meterRegistry.get(ConcurrencyLimitAspect.IN_FLIGHT_METRIC_NAME).gauge().value());
+        assertEquals(1, meterRegistry.get(ConcurrencyLimitAspect.LIMIT_METRIC_NAME).gauge().value());
+    }
+
+    @Test
+    void admitted_bypassesLimit() throws Exception {
+        // Arrange
+        CountDownLatch inside = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userRepository.findById(2L)).thenAnswer(invocation -> {
+            inside.countDown();
+            release.await();
+            return Optional.empty();
+        });
+        when(userRepository.findById(3L)).thenReturn(Optional.of(
+                new User(3L, "test@example.com", "Name", "Lastname", LocalDate.of(2000, 1, 1), null, null)
+        ));
+
+        CompletableFuture<?> holder = CompletableFuture.runAsync(() -> assertThrows(Exception.class, () -> userService.getUserById(2L)));
+        assertTrue(inside.await(5, TimeUnit.SECONDS));
+
+        // Act & Assert: the call reaches the service instead of being rejected
+        assertEquals(3L, ConcurrencyLimitAspect.admitted(() -> userService.getUserById(3L)).getId());
+
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void bulkOperations_notLimited() throws Exception {
+        // Arrange
+        CountDownLatch inside = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userRepository.findById(4L)).thenAnswer(invocation -> {
+            inside.countDown();
+            release.await();
+            return Optional.empty();
+        });
+
+        CompletableFuture<?> holder = CompletableFuture.runAsync(() -> assertThrows(Exception.class, () -> userService.getUserById(4L)));
+        assertTrue(inside.await(5, TimeUnit.SECONDS));
+
+        // Act & Assert: the only permit is taken, yet both calls reach the service
+        assertTrue(userService.createUsers(List.of()).isEmpty());
+        assertEquals(0, userService.deleteUsers(List.of(), null, null));
+        assertEquals(0, meterRegistry.get(ConcurrencyLimitAspect.REJECTED_METRIC_NAME).counter().count());
+
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+    }
+}
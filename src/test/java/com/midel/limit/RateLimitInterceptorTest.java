@@ -0,0 +1,156 @@
+package com.midel.limit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.midel.controller.UserController;
+import com.midel.entity.User;
+import jakarta.servlet.DispatcherType;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitInterceptorTest {
+
+    private static final UserController CONTROLLER = new UserController(null);
+
+    private final RateLimitInterceptor interceptor = new RateLimitInterceptor(
+            new ObjectMapper(), new RateLimiter(10, 0.001, 100), 20, 2, 10, Set.of("partner")
+    );
+
+    @Test
+    void listRequest_chargedBySize() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/users");
+        request.setParameter("size", "100");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        boolean proceed = interceptor.preHandle(request, response, listHandler());
+
+        // Assert
+        assertThat(proceed).isTrue();
+        assertThat(response.getHeader(RateLimitInterceptor.LIMIT_HEADER)).isEqualTo("10");
+        assertThat(response.getHeader(RateLimitInterceptor.REMAINING_HEADER)).isEqualTo("5");
+        assertThat(response.getHeader(RateLimitInterceptor.RESET_HEADER)).isNotNull();
+    }
+
+    @Test
+    void emptyBucket_rejectedWithTooManyRequests() throws Exception {
+        // Arrange
+        interceptor.preHandle(new MockHttpServletRequest("POST", "/users/batch"), new MockHttpServletResponse(), batchHandler());
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+
+        // Act
+        boolean proceed = interceptor.preHandle(new MockHttpServletRequest("POST", "/users"), rejected, createHandler());
+
+        // Assert
+        assertThat(proceed).isFalse();
+        assertThat(rejected.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(rejected.getHeader(RateLimitInterceptor.REMAINING_HEADER)).isEqualTo("0");
+        assertThat(Long.parseLong(rejected.getHeader(HttpHeaders.RETRY_AFTER))).isPositive();
+        assertThat(rejected.getContentAsString()).contains(RateLimitInterceptor.RATE_LIMITED_MESSAGE);
+    }
+
+    @Test
+    void costFollowsHandler_notRequestPath() throws Exception {
+        // Arrange: a path a URL-based check would not recognize as a batch create
+        MockHttpServletRequest disguised = new MockHttpServletRequest("POST", "/users;v=1/%62atch");
+        interceptor.preHandle(disguised, new MockHttpServletResponse(), batchHandler());
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        boolean proceed = interceptor.preHandle(new MockHttpServletRequest("POST", "/users"), response, createHandler());
+
+        // Assert
+        assertThat(proceed).isFalse();
+    }
+
+    @Test
+    void clientsByApiKeyOrAddress_limitedSeparately() throws Exception {
+        // Arrange
+        MockHttpServletRequest heavy = new MockHttpServletRequest("DELETE", "/users");
+        heavy.addHeader(RateLimitInterceptor.API_KEY_HEADER, "partner");
+        interceptor.preHandle(heavy, new MockHttpServletResponse(), batchHandler());
+
+        MockHttpServletRequest sameKey = new MockHttpServletRequest("POST", "/users");
+        sameKey.addHeader(RateLimitInterceptor.API_KEY_HEADER, "partner");
+
+        // Act
+        boolean sameKeyProceeds = interceptor.preHandle(sameKey, new MockHttpServletResponse(), createHandler());
+        boolean otherProceeds = interceptor.preHandle(
+                new MockHttpServletRequest("POST", "/users"), new MockHttpServletResponse(), createHandler()
+        );
+
+        // Assert
+        assertThat(sameKeyProceeds).isFalse();
+        assertThat(otherProceeds).isTrue();
+    }
+
+    @Test
+    void unknownApiKey_limitedByAddress() throws Exception {
+        // Arrange
+        MockHttpServletRequest heavy = new MockHttpServletRequest("POST", "/users/batch");
+        heavy.addHeader(RateLimitInterceptor.API_KEY_HEADER, "made-up-1");
+        interceptor.preHandle(heavy, new MockHttpServletResponse(), batchHandler());
+
+        MockHttpServletRequest otherKey = new MockHttpServletRequest("POST", "/users");
+        otherKey.addHeader(RateLimitInterceptor.API_KEY_HEADER, "made-up-2");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        interceptor.preHandle(otherKey, response, createHandler());
+
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+    }
+
+    @Test
+    void singleUserRead_notLimited() throws Exception {
+        // Arrange
+        interceptor.preHandle(new MockHttpServletRequest("POST", "/users/batch"), new MockHttpServletResponse(), batchHandler());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        boolean proceed = interceptor.preHandle(new MockHttpServletRequest("GET", "/users/1"), response,
+                new HandlerMethod(CONTROLLER, "getUserById", Long.class, String.class, String.class));
+
+        // Assert
+        assertThat(proceed).isTrue();
+        assertThat(response.getHeader(RateLimitInterceptor.LIMIT_HEADER)).isNull();
+    }
+
+    @Test
+    void asyncDispatch_notChargedAgain() throws Exception {
+        // Arrange
+        interceptor.preHandle(new MockHttpServletRequest("POST", "/users/batch"), new MockHttpServletResponse(), batchHandler());
+        MockHttpServletRequest dispatch = new MockHttpServletRequest("GET", "/users/export");
+        dispatch.setDispatcherType(DispatcherType.ASYNC);
+
+        // Act & Assert
+        HandlerMethod export = new HandlerMethod(CONTROLLER, "exportUsers", LocalDate.class, LocalDate.class, String.class);
+        assertThat(interceptor.preHandle(dispatch, new MockHttpServletResponse(), export)).isTrue();
+    }
+
+    private static HandlerMethod listHandler() throws NoSuchMethodException {
+        return new HandlerMethod(CONTROLLER, "getUserList", int.class, int.class, LocalDate.class, LocalDate.class,
+                String.class, String.class, String.class, String.class, String.class);
+    }
+
+    private static HandlerMethod createHandler() throws NoSuchMethodException {
+        return new HandlerMethod(CONTROLLER, "createUser", User.class);
+    }
+
+    private static HandlerMethod batchHandler() throws NoSuchMethodException {
+        return new HandlerMethod(CONTROLLER, "createUsers", List.class);
+    }
+}
@@ -0,0 +1,69 @@
+package com.midel.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void tryAcquire_withinCapacity_allowedUntilEmpty() {
+        // Arrange
+        RateLimiter limiter = new RateLimiter(10, 1, 100, now::get);
+
+        // Act
+        RateLimiter.Decision first = limiter.tryAcquire("client", 4);
+        RateLimiter.Decision second = limiter.tryAcquire("client", 6);
+        RateLimiter.Decision third = limiter.tryAcquire("client", 1);
+
+        // Assert
+        assertTrue(first.allowed());
+        assertEquals(6, first.remaining());
+        assertTrue(second.allowed());
+        assertEquals(0, second.remaining());
+        assertEquals(TimeUnit.SECONDS.toNanos(10), second.resetNanos());
+        assertFalse(third.allowed());
+        assertEquals(TimeUnit.SECONDS.toNanos(1), third.retryAfterNanos());
+    }
+
+    @Test
+    void tryAcquire_afterWaiting_refilled() {
+        // Arrange
+        RateLimiter limiter = new RateLimiter(10, 2, 100, now::get);
+        limiter.tryAcquire("client", 10);
+
+        // Act
+        now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        RateLimiter.Decision decision = limiter.tryAcquire("client", 3);
+
+        // Assert
+        assertTrue(decision.allowed());
+        assertEquals(1, decision.remaining());
+    }
+
+    @Test
+    void tryAcquire_clientsHaveSeparateBuckets() {
+        // Arrange
+        RateLimiter limiter = new RateLimiter(5, 1, 100, now::get);
+        limiter.tryAcquire("heavy", 5);
+
+        // Act & Assert
+        assertFalse(limiter.tryAcquire("heavy", 1).allowed());
+        assertTrue(limiter.tryAcquire("other", 1).allowed());
+    }
+
+    @Test
+    void tryAcquire_costAboveCapacity_needsFullBucket() {
+        // Arrange
+        RateLimiter limiter = new RateLimiter(5, 1, 100, now::get);
+
+        // Act & Assert
+        assertTrue(limiter.tryAcquire("client", 50).allowed());
+        assertFalse(limiter.tryAcquire("client", 50).allowed());
+    }
+}
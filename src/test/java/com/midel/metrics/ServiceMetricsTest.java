@@ -0,0 +1,107 @@
+package com.midel.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.midel.entity.User;
+import com.midel.exception.NotFoundException;
+import com.midel.repository.UserRepository;
+import com.midel.service.EmailIndex;
+import com.midel.service.UserSearchIndex;
+import com.midel.service.UserService;
+import com.midel.service.UserServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@SpringJUnitConfig
+@TestPropertySource(properties = {"server.address=localhost", "server.port=8080", "allowed-age=18", "batch-size=500", "fetch-size=1000", "import.max-record-length=65536"})
+class ServiceMetricsTest {
+
+    @Configuration
+    @EnableAspectJAutoProxy
+    @Import({UserServiceImpl.class, MetricsConfig.class, ServiceErrorMetrics.class})
+    static class MetricsTestConfig {
+        @Bean
+        public MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @MockBean
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private CacheManager cacheManager;
+
+    @MockBean
+    private EmailIndex emailIndex;
+
+    @MockBean
+    private UserSearchIndex searchIndex;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void serviceCalls_areTimedPerMethod() {
+        // Arrange
+        when(userRepository.findById(1L)).thenReturn(Optional.of(
+                new User(1L, "test@example.com", "Name", "Lastname", LocalDate.of(2000, 1, 1), null, null)
+        ));
+
+        // Act
+        userService.getUserById(1L);
+        userService.getUserById(1L);
+
+        // Assert
+        assertEquals(2, meterRegistry.get(UserServiceImpl.TIMER_NAME)
+                .tag("method", "getUserById")
+                .tag("exception", "none")
+                .timer()
+                .count());
+    }
+
+    @Test
+    void serviceErrors_areCountedPerExceptionType() {
+        // Arrange
+        when(userRepository.findById(2L)).thenReturn(Optional.empty());
+
+        // Act
+        assertThrows(NotFoundException.class, () -> userService.getUserById(2L));
+
+        // Assert
+        assertEquals(1, meterRegistry.get(ServiceErrorMetrics.METRIC_NAME)
+                .tag("method", "getUserById")
+                .tag("exception", "NotFoundException")
+                .counter()
+                .count());
+        assertEquals(1, meterRegistry.get(UserServiceImpl.TIMER_NAME)
+                .tag("exception", "NotFoundException")
+                .timer()
+                .count());
+    }
+}
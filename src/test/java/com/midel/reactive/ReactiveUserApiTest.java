@@ -0,0 +1,161 @@
+package com.midel.reactive;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.Objects;
+
+@SpringBootTest(classes = ReactiveMain.class, properties = {
+        "spring.main.web-application-type=reactive",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactive;DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.username=sa",
+        "spring.r2dbc.password=",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.schema-locations=classpath:reactive-schema.sql"
+})
+@AutoConfigureWebTestClient
+class ReactiveUserApiTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @BeforeEach
+    void setUp() {
+        databaseClient.sql("DELETE FROM _user").then().block();
+    }
+
+    @Test
+    void createAndGetUser() {
+        // Act
+        String location = createUser("reactive@example.com")
+                .expectStatus().isCreated()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"0\"")
+                .expectBody()
+                .jsonPath("$.data.email").isEqualTo("reactive@example.com")
+                .returnResult()
+                .getResponseHeaders()
+                .getFirst(HttpHeaders.LOCATION);
+
+        Long id = databaseClient.sql("SELECT id FROM _user").map(row -> row.get(0, Long.class)).one().block();
+
+        // Assert
+        webTestClient.get().uri("/users/{id}", id)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(200)
+                .jsonPath("$.data.lastname").isEqualTo("Lastname")
+                .jsonPath("$.location").value(value -> Objects.equals(value, "http://localhost:8080/users/" + id));
+    }
+
+    @Test
+    void createUser_invalidOrDuplicate_badRequest() {
+        // Arrange
+        createUser("taken@example.com").expectStatus().isCreated();
+
+        // Act & Assert
+        createUser("taken@example.com")
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message[0]").isEqualTo("A user with this email already exists.");
+
+        createUser("not-an-email")
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isNotEmpty();
+    }
+
+    @Test
+    void getUserList_pagedWithLinks() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            createUser("user" + i + "@example.com").expectStatus().isCreated();
+        }
+
+        // Act & Assert
+        webTestClient.get().uri("/users?page=0&size=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.pagination.total_elements").isEqualTo(3)
+                .jsonPath("$.total_elements_type").isEqualTo("exact")
+                .jsonPath("$.data.length()").isEqualTo(2)
+                .jsonPath("$.links.next").isEqualTo("http://localhost:8080/users?size=2&page=1")
+                .jsonPath("$.links.prev").doesNotExist();
+
+        webTestClient.get().uri("/users?from=2001-01-01&to=2000-01-01")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void partiallyUpdateUser_checksIfMatch() {
+        // Arrange
+        createUser("patch@example.com").expectStatus().isCreated();
+        Long id = databaseClient.sql("SELECT id FROM _user").map(row -> row.get(0, Long.class)).one().block();
+
+        // Act & Assert
+        webTestClient.patch().uri("/users/{id}", id)
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"lastname\":\"Patched\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"")
+                .expectBody()
+                .jsonPath("$.data.lastname").isEqualTo("Patched")
+                .jsonPath("$.data.email").isEqualTo("patch@example.com");
+
+        webTestClient.patch().uri("/users/{id}", id)
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"lastname\":\"Stale\"}")
+                .exchange()
+                .expectStatus().isEqualTo(412);
+
+        webTestClient.put().uri("/users/{id}", id + 1)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(userJson("missing@example.com"))
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void createUsers_batchAndDelete() {
+        // Act & Assert
+        webTestClient.post().uri("/users/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("[" + userJson("a@example.com") + "," + userJson("a@example.com") + "]")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.summary.succeeded").isEqualTo(1)
+                .jsonPath("$.summary.failed").isEqualTo(1);
+
+        Long id = databaseClient.sql("SELECT id FROM _user").map(row -> row.get(0, Long.class)).one().block();
+
+        webTestClient.delete().uri("/users/{id}", id).exchange().expectStatus().isOk();
+        webTestClient.get().uri("/users/{id}", id).exchange().expectStatus().isNotFound();
+    }
+
+    private WebTestClient.ResponseSpec createUser(String email) {
+        return webTestClient.post().uri("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(userJson(email))
+                .exchange();
+    }
+
+    private static String userJson(String email) {
+        return "{\"email\":\"" + email + "\",\"firstname\":\"Name\",\"lastname\":\"Lastname\",\"birthdate\":\"2000-01-01\"}";
+    }
+}
@@ -0,0 +1,127 @@
+package com.midel.repository;
+
+import com.midel.entity.User;
+import com.midel.service.UserFilter;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the queries generated for each filter shape against H2 and checks with {@code EXPLAIN} that the planner
+ * picks the matching index from {@link User} instead of scanning {@code _user}.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.midel.repository.UserRepositoryIndexTest$CapturingInspector")
+class UserRepositoryIndexTest {
+
+    private static final LocalDate FROM = LocalDate.of(1990, 1, 1);
+    private static final LocalDate TO = LocalDate.of(1991, 1, 1);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            users.add(new User(
+                    null, "user" + i + "@Domain" + i % 50 + ".example.com", "Name", "Lastname" + i,
+                    FROM.plusDays(i), null, null
+            ));
+        }
+        userRepository.insertAll(users);
+    }
+
+    @Test
+    void birthdateFilter_usesBirthdateIndex() {
+        assertPlanUses(UserFilter.birthdate(FROM, TO), PageRequest.of(0, 20), "IDX_USER_BIRTH_DATE_ID");
+    }
+
+    @Test
+    void lastnamePrefixFilter_usesLastnameIndex() {
+        assertPlanUses(UserFilter.of(null, null, "LASTNAME12", null), PageRequest.of(0, 20), "IDX_USER_LASTNAME_KEY");
+    }
+
+    @Test
+    void emailDomainFilter_usesEmailDomainIndex() {
+        assertPlanUses(UserFilter.of(null, null, null, "domain7.EXAMPLE.com"), PageRequest.of(0, 20), "IDX_USER_EMAIL_DOMAIN");
+    }
+
+    @Test
+    void keysetOrder_usesBirthdateIndex() {
+        assertPlanUses(UserFilter.NONE, PageRequest.of(0, 20, Sort.by("birthdate", "id")), "IDX_USER_BIRTH_DATE_ID");
+    }
+
+    @Test
+    void filters_matchCaseInsensitively() {
+        assertEquals(111, userRepository.count(UserFilter.of(null, null, "lastNAME12", null).toSpecification()));
+        assertEquals(40, userRepository.count(UserFilter.of(null, null, null, "@DOMAIN7.example.com").toSpecification()));
+        assertEquals(0, userRepository.count(UserFilter.of(null, null, "lastname_", null).toSpecification()));
+    }
+
+    @Test
+    void lastnamePrefixFilter_withQuote_matchesLiterally() {
+        userRepository.insertAll(List.of(new User(null, "quote@old.com", "Name", "O'Brien", FROM, null, null)));
+
+        assertEquals(1, userRepository.count(UserFilter.of(null, null, "o'b", null).toSpecification()));
+        assertEquals(0, userRepository.count(UserFilter.of(null, null, "o' or 1=1 --", null).toSpecification()));
+    }
+
+    @Test
+    void usePatternIndexForLastnameKey_notPostgres_leavesIndexAlone() {
+        assertThat(userRepository.usePatternIndexForLastnameKey()).isFalse();
+        assertPlanUses(UserFilter.of(null, null, "LASTNAME12", null), PageRequest.of(0, 20), "IDX_USER_LASTNAME_KEY");
+    }
+
+    @Test
+    void updateProperties_keepsSearchKeysInSync() {
+        Long id = userRepository.insertAll(List.of(
+                new User(null, "old@old.com", "Name", "Old", FROM, null, null)
+        )).get(0);
+
+        userRepository.updateProperties(id, Map.of("lastname", "Newman", "email", "new@New.org"), null);
+
+        assertEquals(
+                Map.of("LASTNAME_KEY", "newman", "EMAIL_DOMAIN", "new.org"),
+                jdbcTemplate.queryForMap("SELECT lastname_key, email_domain FROM _user WHERE id = ?", id)
+        );
+    }
+
+    private void assertPlanUses(UserFilter filter, Pageable pageable, String index) {
+        CapturingInspector.STATEMENTS.clear();
+        userRepository.findSlice(filter.toSpecification(), pageable);
+
+        assertThat(CapturingInspector.STATEMENTS).hasSize(1);
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + CapturingInspector.STATEMENTS.get(0), String.class);
+
+        assertThat(plan).contains(index).doesNotContain("tableScan");
+    }
+
+    public static class CapturingInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new ArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.midel.response;
+
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.midel.entity.User;
+import com.midel.service.CountMode;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PaginationResponseSerializerTest {
+
+    // Configured like the application's mapper (ISO dates, JavaTimeModule).
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    // Same mapper with the custom serializer switched off, i.e. plain bean serialization.
+    private final ObjectMapper beanMapper = Jackson2ObjectMapperBuilder.json()
+            .mixIn(PaginationResponse.class, DefaultSerialization.class)
+            .build();
+
+    private final List<User> users = List.of(
+            new User(1L, "test@example.com", "Name", "Lastname", LocalDate.of(2000, 1, 1), "Address", "132456789", 3L),
+            new User(2L, "test2@example.com", "Name \"2\"", "Lastname", LocalDate.of(1999, 12, 31), null, null),
+            new User(3L, "test3@example.com", "Name", "Lastname", LocalDate.of(12024, 5, 9), null, null),
+            new User(4L, "test4@example.com", "Name", "Lastname", null, null, null)
+    );
+
+    @Test
+    void offsetPage_sameOutputAsBeanSerialization() throws Exception {
+        assertSameOutput(new PaginationResponse(
+                HttpStatus.OK, 1, 2, 10L, users,
+                "http://localhost:8080/users?size=2&page=2", "http://localhost:8080/users?size=2&page=0"
+        ));
+    }
+
+    @Test
+    void pageWithoutCount_sameOutputAsBeanSerialization() throws Exception {
+        assertSameOutput(new PaginationResponse(HttpStatus.OK, 0, 20, null, CountMode.NONE, users, null, null));
+    }
+
+    @Test
+    void cursorPage_sameOutputAsBeanSerialization() throws Exception {
+        assertSameOutput(new PaginationResponse(HttpStatus.OK, 2, users, "http://localhost:8080/users?after=x&size=2"));
+    }
+
+    @Test
+    void nonUserItems_sameOutputAsBeanSerialization() throws Exception {
+        assertSameOutput(new PaginationResponse(HttpStatus.OK, 0, 20, 1L, List.of(Map.of("id", 1)), null, null));
+    }
+
+    @Test
+    void datesAsTimestamps_sameOutputAsBeanSerialization() throws Exception {
+        PaginationResponse response = new PaginationResponse(HttpStatus.OK, 0, 20, 4L, users, null, null);
+
+        assertEquals(
+                beanMapper.copy().enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).writeValueAsString(response),
+                objectMapper.copy().enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).writeValueAsString(response)
+        );
+    }
+
+    private void assertSameOutput(PaginationResponse response) throws Exception {
+        assertEquals(beanMapper.writeValueAsString(response), objectMapper.writeValueAsString(response));
+    }
+
+    @JsonSerialize(using = JsonSerializer.None.class)
+    private interface DefaultSerialization {
+    }
+}
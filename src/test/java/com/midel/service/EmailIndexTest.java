@@ -0,0 +1,69 @@
+package com.midel.service;
+
+import com.midel.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmailIndexTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private EmailIndex emailIndex;
+
+    @BeforeEach
+    void setUp() {
+        emailIndex = new EmailIndex(userRepository, transactionManager, 10_000, 0.01);
+    }
+
+    @Test
+    void mightContain_beforeWarmUp_answersMaybe() {
+        assertTrue(emailIndex.mightContain("new@example.com"));
+    }
+
+    @Test
+    void warmUp_indexesExistingEmails() {
+        // Arrange
+        when(userRepository.streamAllEmails()).thenReturn(Stream.of("test@example.com"));
+
+        // Act
+        emailIndex.warmUp();
+
+        // Assert
+        assertTrue(emailIndex.mightContain("test@example.com"));
+        assertTrue(emailIndex.mightContain(" TEST@example.com"));
+        assertFalse(emailIndex.mightContain("new@example.com"));
+    }
+
+    @Test
+    void add_neverForgetsEmailsAndKeepsFalsePositivesLow() {
+        // Arrange
+        when(userRepository.streamAllEmails()).thenReturn(Stream.empty());
+        emailIndex.warmUp();
+
+        // Act
+        IntStream.range(0, 10_000).forEach(i -> emailIndex.add("user" + i + "@example.com"));
+
+        // Assert
+        IntStream.range(0, 10_000).forEach(i -> assertTrue(emailIndex.mightContain("user" + i + "@example.com")));
+
+        long falsePositives = IntStream.range(0, 10_000)
+                .filter(i -> emailIndex.mightContain("other" + i + "@example.com"))
+                .count();
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+}
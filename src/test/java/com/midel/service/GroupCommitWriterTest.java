@@ -0,0 +1,202 @@
+package com.midel.service;
+
+import com.midel.entity.User;
+import com.midel.exception.AlreadyExistException;
+import com.midel.exception.ServiceUnavailableException;
+import com.midel.response.BatchItemResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GroupCommitWriterTest {
+
+    @Mock
+    private UserService userService;
+
+    private GroupCommitWriter writer;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        writer.close();
+    }
+
+    @Test
+    void write_usersQueuedTogether_insertedInOneBatch() throws Exception {
+        // Arrange
+        writer = new GroupCommitWriter(userService, 100, 10, Duration.ofMillis(200), Duration.ofMillis(100), Duration.ofSeconds(5));
+
+        when(userService.createUsers(anyList())).thenAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            List<BatchItemResult> results = new ArrayList<>();
+            for (int i = 0; i < users.size(); i++) {
+                users.get(i).setId(i + 1L);
+                results.add(BatchItemResult.created(i, i + 1L));
+            }
+            return results;
+        });
+
+        // Act
+        List<CompletableFuture<User>> futures = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            futures.add(writer.submit(user("user" + i + "@example.com")));
+        }
+
+        // Assert
+        for (int i = 0; i < 3; i++) {
+            assertEquals(i + 1L, futures.get(i).get(5, TimeUnit.SECONDS).getId());
+        }
+        verify(userService, times(1)).createUsers(argThat(users -> users.size() == 3));
+    }
+
+    @Test
+    void write_fullBatch_flushedWithoutWaitingForDelay() {
+        // Arrange
+        writer = new GroupCommitWriter(userService, 100, 2, Duration.ofHours(1), Duration.ofMillis(100), Duration.ofSeconds(5));
+
+        when(userService.createUsers(anyList()))
+                .thenReturn(List.of(BatchItemResult.created(0, 1L), BatchItemResult.created(1, 2L)));
+
+        // Act
+        CompletableFuture<User> first = writer.submit(user("a@example.com"));
+        CompletableFuture<User> second = writer.submit(user("b@example.com"));
+
+        // Assert
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> CompletableFuture.allOf(first, second).join());
+    }
+
+    @Test
+    void write_duplicateEmail_failsOnlyThatCaller() {
+        // Arrange
+        writer = new GroupCommitWriter(userService, 100, 2, Duration.ofHours(1), Duration.ofMillis(100), Duration.ofSeconds(5));
+
+        when(userService.createUsers(anyList())).thenReturn(List.of(
+                BatchItemResult.created(0, 1L),
+                BatchItemResult.failed(1, UserServiceImpl.EMAIL_EXISTS_MESSAGE)
+        ));
+
+        // Act
+        CompletableFuture<User> first = writer.submit(user("a@example.com"));
+        CompletableFuture<User> second = writer.submit(user("a@example.com"));
+
+        // Assert
+        assertDoesNotThrow(() -> first.get(5, TimeUnit.SECONDS));
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(AlreadyExistException.class, exception.getCause());
+    }
+
+    @Test
+    void write_rethrowsTheCallersError() {
+        // Arrange
+        writer = new GroupCommitWriter(userService, 100, 1, Duration.ZERO, Duration.ofMillis(100), Duration.ofSeconds(5));
+
+        when(userService.createUsers(anyList()))
+                .thenReturn(List.of(BatchItemResult.failed(0, UserServiceImpl.EMAIL_EXISTS_MESSAGE)));
+
+        // Act & Assert
+        assertThrows(AlreadyExistException.class, () -> writer.write(user("a@example.com")));
+    }
+
+    @Test
+    void write_queueFull_rejectedWithServiceUnavailable() throws Exception {
+        // Arrange
+        writer = new GroupCommitWriter(userService, 1, 1, Duration.ZERO, Duration.ofMillis(10), Duration.ofSeconds(5));
+
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userService.createUsers(anyList())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            return List.of(BatchItemResult.created(0, 1L));
+        });
+
+        // Act
+        writer.submit(user("a@example.com"));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        writer.submit(user("b@example.com"));
+
+        // Assert
+        assertThrows(ServiceUnavailableException.class, () -> writer.submit(user("c@example.com")));
+        release.countDown();
+    }
+
+    @Test
+    void close_drainsQueueAndRejectsNewUsers() throws Exception {
+        // Arrange
+        writer = new GroupCommitWriter(userService, 100, 10, Duration.ofHours(1), Duration.ofMillis(100), Duration.ofSeconds(5));
+
+        when(userService.createUsers(anyList())).thenReturn(List.of(BatchItemResult.created(0, 1L)));
+        CompletableFuture<User> queued = writer.submit(user("a@example.com"));
+
+        // Act
+        writer.close();
+
+        // Assert
+        assertTrue(queued.isDone());
+        assertThrows(ServiceUnavailableException.class, () -> writer.submit(user("b@example.com")));
+    }
+
+    @Test
+    void write_batchNotCommittedInTime_rejectedWithServiceUnavailable() throws Exception {
+        // Arrange
+        writer = new GroupCommitWriter(userService, 100, 1, Duration.ZERO, Duration.ofMillis(100), Duration.ofMillis(50));
+
+        CountDownLatch release = new CountDownLatch(1);
+        when(userService.createUsers(anyList())).thenAnswer(invocation -> {
+            release.await();
+            return List.of(BatchItemResult.created(0, 1L));
+        });
+
+        // Act & Assert
+        ServiceUnavailableException exception =
+                assertThrows(ServiceUnavailableException.class, () -> writer.write(user("a@example.com")));
+        assertEquals(List.of(GroupCommitWriter.WRITE_TIMEOUT_MESSAGE), exception.getMessages());
+        release.countDown();
+    }
+
+    @Test
+    void writerStopped_queuedUsersFailedInsteadOfStranded() throws Exception {
+        // Arrange
+        writer = new GroupCommitWriter(userService, 100, 1, Duration.ZERO, Duration.ofMillis(100), Duration.ofSeconds(5));
+
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userService.createUsers(anyList())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            throw new OutOfMemoryError("writer thread dies");
+        });
+
+        CompletableFuture<User> inBatch = writer.submit(user("a@example.com"));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        CompletableFuture<User> queued = writer.submit(user("b@example.com"));
+
+        // Act
+        release.countDown();
+
+        // Assert
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(ServiceUnavailableException.class, exception.getCause());
+        assertThrows(ExecutionException.class, () -> inBatch.get(5, TimeUnit.SECONDS));
+        assertThrows(ServiceUnavailableException.class, () -> writer.submit(user("c@example.com")));
+    }
+
+    private static User user(String email) {
+        return new User(null, email, "Name", "Lastname", LocalDate.of(2000, 1, 1), null, null);
+    }
+}
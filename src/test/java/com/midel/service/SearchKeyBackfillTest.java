@@ -0,0 +1,47 @@
+package com.midel.service;
+
+import com.midel.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SearchKeyBackfillTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private SearchKeyBackfill backfill;
+
+    @Test
+    void backfill_noMissingKeys_skipsUpdate() {
+        // Arrange
+        when(userRepository.existsByLastnameKeyIsNullOrEmailDomainIsNull()).thenReturn(false);
+
+        // Act
+        backfill.backfill();
+
+        // Assert
+        verify(userRepository, never()).fillMissingSearchKeys();
+        verify(userRepository).usePatternIndexForLastnameKey();
+    }
+
+    @Test
+    void backfill_failures_loggedInsteadOfFailingStartup() {
+        // Arrange
+        when(userRepository.existsByLastnameKeyIsNullOrEmailDomainIsNull()).thenReturn(true);
+        when(userRepository.fillMissingSearchKeys()).thenThrow(new DataAccessResourceFailureException("down"));
+        when(userRepository.usePatternIndexForLastnameKey()).thenThrow(new DataAccessResourceFailureException("down"));
+
+        // Act & Assert
+        assertDoesNotThrow(backfill::backfill);
+        verify(userRepository).usePatternIndexForLastnameKey();
+    }
+}
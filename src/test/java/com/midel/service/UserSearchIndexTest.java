@@ -0,0 +1,126 @@
+package com.midel.service;
+
+import com.midel.entity.User;
+import com.midel.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserSearchIndexTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private UserSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        searchIndex = new UserSearchIndex(userRepository, transactionManager, 1000);
+
+        searchIndex.add(user(1L, "John", "Smith", "john.smith@example.com", "12 Baker Street"));
+        searchIndex.add(user(2L, "Jane", "Smithson", "jane@mail.org", null));
+        searchIndex.add(user(3L, "Olga", "Kowalska", "olga.k@example.com", "5 Market Square"));
+    }
+
+    @Test
+    void search_toleratesTyposAndPartialWords() {
+        assertEquals(Set.of(1L, 2L), Set.copyOf(searchIndex.search("smiht", 10)));
+        assertEquals(List.of(3L), searchIndex.search("kowal", 10));
+        assertEquals(3L, searchIndex.search("MARKET sq", 10).get(0));
+    }
+
+    @Test
+    void search_ranksCloserMatchesFirstAndRespectsLimit() {
+        assertEquals(List.of(1L, 2L), searchIndex.search("john smith", 10));
+        assertEquals(List.of(1L), searchIndex.search("john smith", 1));
+    }
+
+    @Test
+    void search_unrelatedOrEmptyQuery_findsNothing() {
+        assertTrue(searchIndex.search("zzzqqq", 10).isEmpty());
+        assertTrue(searchIndex.search("  ...  ", 10).isEmpty());
+    }
+
+    @Test
+    void add_existingUser_replacesItsEntry() {
+        // Act
+        searchIndex.add(user(3L, "Olga", "Nowak", "olga.k@example.com", "5 Market Square"));
+
+        // Assert
+        assertTrue(searchIndex.search("kowalska", 10).isEmpty());
+        assertEquals(List.of(3L), searchIndex.search("nowak", 10));
+        assertEquals(3, searchIndex.size());
+    }
+
+    @Test
+    void remove_dropsUserFromResults() {
+        // Act
+        searchIndex.remove(1L);
+
+        // Assert
+        assertEquals(List.of(2L), searchIndex.search("smith", 10));
+        assertEquals(2, searchIndex.size());
+    }
+
+    @Test
+    void removeAll_manyUsersSharingTrigrams_keepsPostingsConsistent() {
+        // Arrange: every user shares the trigrams of "example.com" with all the others
+        for (long id = 100; id < 2100; id++) {
+            searchIndex.add(user(id, "Name" + id, "Last" + id, "user" + id + "@example.com", null));
+        }
+        List<Long> deleted = LongStream.range(100, 2100).filter(id -> id % 3 != 0).boxed().toList();
+
+        // Act
+        searchIndex.removeAll(deleted);
+        searchIndex.add(user(101L, "Name101", "Last101", "user101@example.com", null));
+
+        // Assert
+        Set<Long> expected = new HashSet<>(List.of(1L, 3L, 101L));
+        LongStream.range(100, 2100).filter(id -> id % 3 == 0).forEach(expected::add);
+
+        assertEquals(expected.size() + 1, searchIndex.size());
+        assertEquals(expected, Set.copyOf(searchIndex.search("example com", 10_000)));
+        assertEquals(List.of(2097L), searchIndex.search("name2097 last2097", 1));
+        assertFalse(searchIndex.search("name2098 last2098", 10).contains(2098L));
+    }
+
+    @Test
+    void warmUp_keepsEntriesWrittenMeanwhile() {
+        // Arrange
+        when(userRepository.streamAll(any(), eq(1000))).thenReturn(Stream.of(
+                user(1L, "Zbyszek", "Nowak", "john.smith@example.com", null),
+                user(4L, "Anna", "Lee", "anna@example.com", null)
+        ));
+
+        // Act
+        searchIndex.warmUp();
+
+        // Assert
+        assertEquals(List.of(1L), searchIndex.search("john smith", 1));
+        assertTrue(searchIndex.search("zbyszek", 10).isEmpty());
+        assertEquals(List.of(4L), searchIndex.search("anna lee", 10));
+    }
+
+    private static User user(Long id, String firstname, String lastname, String email, String address) {
+        return new User(id, email, firstname, lastname, LocalDate.of(2000, 1, 1), address, null);
+    }
+}
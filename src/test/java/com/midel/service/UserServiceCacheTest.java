@@ -0,0 +1,189 @@
+package com.midel.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.midel.entity.User;
+import com.midel.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig
+@TestPropertySource(properties = {"server.address=localhost", "server.port=8080", "allowed-age=18", "batch-size=500", "fetch-size=1000", "import.max-record-length=65536"})
+class UserServiceCacheTest {
+
+    @Configuration
+    @EnableCaching
+    @Import(UserServiceImpl.class)
+    static class CacheConfig {
+        @Bean
+        public CacheManager cacheManager() {
+            CaffeineCacheManager cacheManager = new CaffeineCacheManager(UserServiceImpl.USER_CACHE);
+            cacheManager.setCaffeine(Caffeine.newBuilder().maximumSize(100));
+            return cacheManager;
+        }
+    }
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @MockBean
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private EmailIndex emailIndex;
+
+    @MockBean
+    private UserSearchIndex searchIndex;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private final long id = 1;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(UserServiceImpl.USER_CACHE).clear();
+    }
+
+    @Test
+    void getUserById_secondReadServedFromCache() {
+        // Arrange
+        when(userRepository.findById(id)).thenReturn(Optional.of(getUser("test@example.com")));
+
+        // Act
+        userService.getUserById(id);
+        User cached = userService.getUserById(id);
+
+        // Assert
+        assertEquals("test@example.com", cached.getEmail());
+        verify(userRepository, times(1)).findById(id);
+    }
+
+    @Test
+    void updateUser_evictsCachedEntry() {
+        // Arrange
+        User updated = getUser("test-update@example.com");
+
+        when(userRepository.findById(id)).thenReturn(Optional.of(getUser("test@example.com")), Optional.of(updated));
+        when(userRepository.updateProperties(eq(id), anyMap(), isNull())).thenReturn(Optional.of(updated));
+
+        userService.getUserById(id);
+
+        // Act
+        userService.updateUser(id, updated, null);
+
+        // Assert
+        assertEquals("test-update@example.com", userService.getUserById(id).getEmail());
+        verify(userRepository, times(2)).findById(id);
+    }
+
+    @Test
+    void partiallyUpdateUser_evictsCachedEntry() {
+        // Arrange
+        User updated = getUser("test-update@example.com");
+
+        when(userRepository.findById(id)).thenReturn(Optional.of(getUser("test@example.com")), Optional.of(updated));
+        when(userRepository.updateProperties(eq(id), anyMap(), isNull())).thenReturn(Optional.of(updated));
+
+        userService.getUserById(id);
+
+        // Act
+        userService.partiallyUpdateUser(id, new User(null, "test-update@example.com", null, null, null, null, null), null);
+
+        // Assert
+        assertEquals("test-update@example.com", userService.getUserById(id).getEmail());
+        verify(userRepository, times(2)).findById(id);
+    }
+
+    @Test
+    void readInterleavedWithUpdate_doesNotCacheOldRow() throws Exception {
+        // Arrange: the read loads the old row, then the update commits before the read stores it
+        User updated = getUser("test-update@example.com");
+        CountDownLatch loaded = new CountDownLatch(1);
+        CountDownLatch updateCommitted = new CountDownLatch(1);
+
+        when(userRepository.findById(id)).thenAnswer(invocation -> {
+            loaded.countDown();
+            updateCommitted.await(5, TimeUnit.SECONDS);
+            return Optional.of(getUser("test@example.com"));
+        }).thenReturn(Optional.of(updated));
+        when(userRepository.updateProperties(eq(id), anyMap(), isNull())).thenReturn(Optional.of(updated));
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<User> read = executor.submit(() -> userService.getUserById(id));
+            assertTrue(loaded.await(5, TimeUnit.SECONDS));
+
+            // Act
+            Future<User> update = executor.submit(() -> userService.updateUser(id, updated, null));
+            try {
+                // The eviction waits for the read in progress, so the update does not finish here.
+                update.get(500, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // Expected.
+            }
+            updateCommitted.countDown();
+            read.get(5, TimeUnit.SECONDS);
+            update.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Assert
+        assertEquals("test-update@example.com", userService.getUserById(id).getEmail());
+    }
+
+    @Test
+    void deleteUser_evictsCachedEntry() {
+        // Arrange
+        when(userRepository.findById(id)).thenReturn(Optional.of(getUser("test@example.com")));
+
+        userService.getUserById(id);
+
+        // Act
+        userService.deleteUser(id);
+        userService.getUserById(id);
+
+        // Assert
+        verify(userRepository, times(2)).findById(id);
+    }
+
+    private User getUser(String email) {
+        return new User(
+                id, email, "Name", "Lastname",
+                LocalDate.of(2000, 1, 1), "Address", "132456789"
+        );
+    }
+}
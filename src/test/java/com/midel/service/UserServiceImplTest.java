@@ -1,17 +1,30 @@
 package com.midel.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.midel.entity.User;
 import com.midel.exception.AlreadyExistException;
 import com.midel.exception.InvalidArgumentException;
 import com.midel.exception.NotFoundException;
+import com.midel.exception.PreconditionFailedException;
 import com.midel.repository.UserRepository;
+import com.midel.response.BatchItemResult;
+import com.midel.response.ImportResponse;
 import com.midel.response.PaginationResponse;
+import com.midel.response.SearchResponse;
+import com.midel.utils.ETags;
+import com.midel.utils.UserCursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.dao.DataIntegrityViolationException;
@@ -19,16 +32,29 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.Properties;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
@@ -40,6 +66,29 @@ class UserServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EmailIndex emailIndex;
+
+    @Mock
+    private UserSearchIndex searchIndex;
+
+    @Mock
+    private ObjectProvider<GroupCommitWriter> groupCommitWriter;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache cache;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
 
     private final int allowedAge = 18;
 
@@ -49,6 +98,11 @@ class UserServiceImplTest {
     @BeforeEach
     void setUp() {
         ReflectionTestUtils.setField(userService, "allowedAge", allowedAge);
+        ReflectionTestUtils.setField(userService, "batchSize", 2);
+        ReflectionTestUtils.setField(userService, "maxRecordLength", 200);
+
+        // Behave like an index that has not been warmed up: every email may exist.
+        lenient().when(emailIndex.mightContain(anyString())).thenReturn(true);
     }
 
     @Configuration
@@ -78,6 +132,48 @@ class UserServiceImplTest {
         verify(userRepository, times(1)).save(userToCreate);
     }
 
+    @Test
+    void createUser_groupCommit_queuesValidatedUser() {
+        // Arrange
+        GroupCommitWriter writer = mock(GroupCommitWriter.class);
+        User userToCreate = new User(
+                null, "test@example.com", "Name", "Lastname",
+                LocalDate.of(2000, 1, 1), "Address", "132456789"
+        );
+        User created = new User(
+                1L, "test@example.com", "Name", "Lastname",
+                LocalDate.of(2000, 1, 1), "Address", "132456789"
+        );
+
+        when(groupCommitWriter.getIfAvailable()).thenReturn(writer);
+        when(writer.write(userToCreate)).thenReturn(created);
+
+        // Act
+        User result = userService.createUser(userToCreate);
+
+        // Assert
+        assertEquals(created, result);
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void createUser_groupCommit_invalidUserNotQueued() {
+        // Arrange
+        GroupCommitWriter writer = mock(GroupCommitWriter.class);
+        User userToCreate = new User(
+                null, "test@@@example.com", "Name", "Lastname",
+                LocalDate.of(2000, 1, 1), "Address", "132456789"
+        );
+
+        when(groupCommitWriter.getIfAvailable()).thenReturn(writer);
+
+        // Act
+        assertThrows(InvalidArgumentException.class, () -> userService.createUser(userToCreate));
+
+        // Assert
+        verifyNoInteractions(writer);
+    }
+
     @Test
     void createUser_emailAlreadyExist() {
         // Arrange
@@ -101,6 +197,46 @@ class UserServiceImplTest {
 
     }
 
+    @Test
+    void createUser_knownEmail_rejectedWithoutInsert() {
+        // Arrange
+        User userToCreate = new User(
+                null, "test@example.com", "Name", "Lastname",
+                LocalDate.of(2000, 1, 1), "Address", "132456789"
+        );
+
+        when(userRepository.existsByEmail("test@example.com")).thenReturn(true);
+
+        // Act
+        AlreadyExistException exception = assertThrows(
+                AlreadyExistException.class,
+                () -> userService.createUser(userToCreate)
+        );
+
+        // Assert
+        assertEquals("A user with this email already exists.", exception.getMessage());
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void createUser_definitelyNewEmail_skipsExistenceQuery() {
+        // Arrange
+        User userToCreate = new User(
+                null, "new@example.com", "Name", "Lastname",
+                LocalDate.of(2000, 1, 1), "Address", "132456789"
+        );
+
+        when(emailIndex.mightContain("new@example.com")).thenReturn(false);
+        when(userRepository.save(userToCreate)).thenReturn(userToCreate);
+
+        // Act
+        userService.createUser(userToCreate);
+
+        // Assert
+        verify(userRepository, never()).existsByEmail(anyString());
+        verify(emailIndex, times(1)).add("new@example.com");
+    }
+
     @Test
     void createUser_invalidEmail() {
         // Arrange
@@ -178,6 +314,237 @@ class UserServiceImplTest {
         assertThat(exception.getMessage()).contains("'lastname' is a required field.");
     }
 
+    @Test
+    void createUsers_mixedItems_reportsResultPerItem() {
+        // Arrange
+        List<User> users = List.of(
+                new User(null, "a@example.com", "Name", "Lastname", LocalDate.of(2000, 1, 1), null, null),
+                new User(null, "invalid@@example.com", "Name", "Lastname", LocalDate.of(2000, 1, 1), null, null),
+                new User(null, "a@example.com", "Name", "Lastname", LocalDate.of(2000, 1, 1), null, null),
+                new User(null, "taken@example.com", "Name", "Lastname", LocalDate.of(2000, 1, 1), null, null),
+                new User(null, "b@example.com", "Name", "Lastname", LocalDate.of(2000, 1, 1), null, null)
+        );
+
+        when(userRepository.findExistingEmails(List.of("a@example.com", "taken@example.com")))
+                .thenReturn(Set.of("taken@example.com"));
+        when(userRepository.findExistingEmails(List.of("b@example.com")))
+                .thenReturn(Set.of());
+        when(userRepository.insertAll(anyList()))
+                .thenReturn(List.of(10L))
+                .thenReturn(List.of(11L));
+
+        // Act
+        List<BatchItemResult> results = userService.createUsers(users);
+
+        // Assert
+        assertEquals(users.size(), results.size());
+        assertEquals(10L, results.get(0).getId());
+        assertThat(results.get(1).getMessage()).contains("Invalid email.");
+        assertThat(results.get(2).getMessage()).contains("A user with this email already exists.");
+        assertThat(results.get(3).getMessage()).contains("A user with this email already exists.");
+        assertEquals(11L, results.get(4).getId());
+
+        verify(userRepository, times(2)).insertAll(anyList());
+    }
+
+    @Test
+    void createUsers_definitelyNewEmails_skipExistenceQuery() {
+        // Arrange
+        User user = new User(null, "a@example.com", "Name", "Lastname", LocalDate.of(2000, 1, 1), null, null);
+
+        when(emailIndex.mightContain("a@example.com")).thenReturn(false);
+        when(userRepository.insertAll(List.of(user))).thenReturn(List.of(1L));
+
+        // Act
+        List<BatchItemResult> results = userService.createUsers(List.of(user));
+
+        // Assert
+        assertEquals(1L, results.get(0).getId());
+        verify(userRepository, never()).findExistingEmails(anyList());
+        verify(emailIndex, times(1)).add("a@example.com");
+    }
+
+    @Test
+    void createUsers_concurrentDuplicate_retriesRowByRow() {
+        // Arrange
+        User first = new User(null, "a@example.com", "Name", "Lastname", LocalDate.of(2000, 1, 1), null, null);
+        User second = new User(null, "b@example.com", "Name", "Lastname", LocalDate.of(2000, 1, 1), null, null);
+
+        when(userRepository.findExistingEmails(anyList())).thenReturn(Set.of());
+        when(userRepository.insertAll(List.of(first, second)))
+                .thenThrow(new DataIntegrityViolationException(""));
+        when(userRepository.insertAll(List.of(first))).thenReturn(List.of(1L));
+        when(userRepository.insertAll(List.of(second)))
+                .thenThrow(new DataIntegrityViolationException(""));
+
+        // Act
+        List<BatchItemResult> results = userService.createUsers(List.of(first, second));
+
+        // Assert
+        assertEquals(1L, results.get(0).getId());
+        assertEquals(HttpStatus.BAD_REQUEST.value(), results.get(1).getStatus());
+    }
+
+    @Test
+    void importUsers_csv_withoutCopySupport_usesJdbcBatches() throws Exception {
+        // Arrange
+        String csv = """
+                email,firstname,lastname,birthdate,address,phoneNumber
+                a@example.com,Name,Lastname,2000-01-01,"Street 1,
+                Town",123
+                invalid@@example.com,Name,Lastname,2000-01-01,,
+                a@example.com,Name,Lastname,2000-01-01,,
+                b@example.com,Name,Lastname,01.01.2000,,
+
+                c@example.com,Name
+                taken@example.com,Name,Lastname,2000-01-01,,
+                """;
+
+        when(userRepository.supportsCopy()).thenReturn(false);
+        when(userRepository.findExistingEmails(anyList())).thenReturn(Set.of("taken@example.com"));
+        when(userRepository.insertAll(anyList())).thenReturn(List.of(1L));
+
+        // Act
+        ImportResponse report = userService.importUsers(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), DataFormat.CSV
+        );
+
+        // Assert
+        assertEquals(6L, report.getSummary().get("total"));
+        assertEquals(1L, report.getSummary().get("imported"));
+        assertEquals(5L, report.getSummary().get("rejected"));
+
+        Map<Integer, List<String>> rejected = report.getRejected().stream()
+                .collect(Collectors.toMap(BatchItemResult::getIndex, BatchItemResult::getMessage));
+
+        assertThat(rejected).containsOnlyKeys(1, 2, 3, 4, 5);
+        assertThat(rejected.get(1)).contains("Invalid email.");
+        assertThat(rejected.get(2)).contains("A user with this email already exists.");
+        assertThat(rejected.get(3)).contains("Invalid birthdate format, expected yyyy-MM-dd.");
+        assertThat(rejected.get(4)).contains("Malformed record.");
+        assertThat(rejected.get(5)).contains("A user with this email already exists.");
+
+        verify(userRepository).insertAll(argThat(users ->
+                users.size() == 1 && users.get(0).getAddress().equals("Street 1,\nTown")
+        ));
+    }
+
+    @Test
+    void importUsers_ndjson_withCopySupport_mergesThroughStagingTable() throws Exception {
+        // Arrange
+        String ndjson = """
+                {"email":"a@example.com","firstname":"Name","lastname":"Lastname","birthdate":"2000-01-01"}
+                {"email":"taken@example.com","firstname":"Name","lastname":"Lastname","birthdate":"2000-01-01"}
+                {"email":
+                """;
+
+        when(userRepository.supportsCopy()).thenReturn(true);
+        when(userRepository.copyAll(anyList())).thenReturn(Map.of("a@example.com", 1L));
+
+        // Act
+        ImportResponse report = userService.importUsers(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), DataFormat.NDJSON
+        );
+
+        // Assert
+        assertEquals(3L, report.getSummary().get("total"));
+        assertEquals(1L, report.getSummary().get("imported"));
+        assertThat(report.getRejected()).extracting(BatchItemResult::getIndex).containsExactlyInAnyOrder(1, 2);
+
+        verify(userRepository, times(1)).copyAll(anyList());
+        verify(userRepository, never()).insertAll(anyList());
+        verify(searchIndex, times(1)).add(argThat(user -> user.getId() == 1L && user.getEmail().equals("a@example.com")));
+    }
+
+    @Test
+    void importUsers_csvRecordTooLong_rejectsOnlyThatRecord() throws Exception {
+        // Arrange
+        String csv = "email,firstname,lastname,birthdate\n"
+                + "a@example.com,Name,Lastname,2000-01-01\n"
+                + "b@example.com,Name," + "x".repeat(1000) + ",2000-01-01\n"
+                + "c@example.com,Name,Lastname,2000-01-01\n";
+
+        when(userRepository.supportsCopy()).thenReturn(false);
+        when(userRepository.findExistingEmails(anyList())).thenReturn(Set.of());
+        when(userRepository.insertAll(anyList())).thenReturn(List.of(1L, 2L));
+
+        // Act
+        ImportResponse report = userService.importUsers(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), DataFormat.CSV
+        );
+
+        // Assert
+        assertEquals(3L, report.getSummary().get("total"));
+        assertEquals(2L, report.getSummary().get("imported"));
+        assertThat(report.getRejected()).singleElement().satisfies(rejected -> {
+            assertEquals(1, rejected.getIndex());
+            assertThat(rejected.getMessage()).contains("Record longer than 200 characters.");
+        });
+        verify(userRepository).insertAll(argThat(users -> users.stream().map(User::getEmail).toList()
+                .equals(List.of("a@example.com", "c@example.com"))));
+    }
+
+    @Test
+    void importUsers_csvUnterminatedQuote_rejectsRecordAndKeepsEarlierRows() throws Exception {
+        // Arrange
+        String csv = "email,firstname,lastname,birthdate\n"
+                + "a@example.com,Name,Lastname,2000-01-01\n"
+                + "b@example.com,Name,Lastname,2000-01-01\n"
+                + "c@example.com,\"Name,Lastname,2000-01-01\n"
+                + "d@example.com,Name,Lastname,2000-01-01\n";
+
+        when(userRepository.supportsCopy()).thenReturn(false);
+        when(userRepository.findExistingEmails(anyList())).thenReturn(Set.of());
+        when(userRepository.insertAll(anyList())).thenReturn(List.of(1L, 2L));
+
+        // Act
+        ImportResponse report = userService.importUsers(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), DataFormat.CSV
+        );
+
+        // Assert
+        assertEquals(3L, report.getSummary().get("total"));
+        assertEquals(2L, report.getSummary().get("imported"));
+        assertThat(report.getRejected()).singleElement().satisfies(rejected -> {
+            assertEquals(2, rejected.getIndex());
+            assertThat(rejected.getMessage()).contains("Unterminated quoted field.");
+        });
+    }
+
+    @Test
+    void importUsers_ndjsonLineTooLong_rejectsOnlyThatLine() throws Exception {
+        // Arrange
+        String ndjson = "{\"email\":\"" + "x".repeat(1000) + "@example.com\"}\n"
+                + "{\"email\":\"a@example.com\",\"firstname\":\"Name\",\"lastname\":\"Lastname\",\"birthdate\":\"2000-01-01\"}\n";
+
+        when(userRepository.supportsCopy()).thenReturn(true);
+        when(userRepository.copyAll(anyList())).thenReturn(Map.of("a@example.com", 1L));
+
+        // Act
+        ImportResponse report = userService.importUsers(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), DataFormat.NDJSON
+        );
+
+        // Assert
+        assertEquals(2L, report.getSummary().get("total"));
+        assertEquals(1L, report.getSummary().get("imported"));
+        assertThat(report.getRejected()).singleElement().satisfies(rejected -> {
+            assertEquals(0, rejected.getIndex());
+            assertThat(rejected.getMessage()).contains("Record longer than 200 characters.");
+        });
+    }
+
+    @Test
+    void importUsers_csvWithoutRequiredColumns_throwsException() {
+        // Arrange
+        String csv = "email,firstname\n";
+
+        // Act & Assert
+        assertThrows(InvalidArgumentException.class, () -> userService.importUsers(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), DataFormat.CSV
+        ));
+    }
+
     @Test
     void getUserById_userFound() {
         // Arrange
@@ -228,16 +595,59 @@ class UserServiceImplTest {
         verify(userRepository, times(1)).deleteById(any(Long.class));
     }
 
+    @Test
+    void deleteUsers_byIds_deletesInChunksAndEvictsCache() {
+        // Arrange
+        when(cacheManager.getCache(UserServiceImpl.USER_CACHE)).thenReturn(cache);
+        when(userRepository.deleteByIds(List.of(1L, 2L))).thenReturn(2);
+        when(userRepository.deleteByIds(List.of(3L))).thenReturn(1);
+
+        // Act
+        long deleted = userService.deleteUsers(List.of(1L, 2L, 3L), null, null);
+
+        // Assert
+        assertEquals(3, deleted);
+        verify(cache).evict(1L);
+        verify(cache).evict(2L);
+        verify(cache).evict(3L);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void deleteUsers_byFilter_walksMatchingIdsInChunks() {
+        // Arrange
+        LocalDate from = LocalDate.of(2000, 1, 1);
+        LocalDate to = LocalDate.of(2001, 1, 1);
+
+        when(cacheManager.getCache(UserServiceImpl.USER_CACHE)).thenReturn(cache);
+        when(userRepository.findIdsAfter(any(Specification.class), eq(Long.MIN_VALUE), eq(2)))
+                .thenReturn(List.of(4L, 7L));
+        when(userRepository.findIdsAfter(any(Specification.class), eq(7L), eq(2)))
+                .thenReturn(List.of(9L));
+        when(userRepository.deleteByIds(anyList())).thenAnswer(invocation -> invocation.<List<Long>>getArgument(0).size());
+
+        // Act
+        long deleted = userService.deleteUsers(null, from, to);
+
+        // Assert
+        assertEquals(3, deleted);
+        verify(userRepository).deleteByIds(List.of(4L, 7L));
+        verify(userRepository).deleteByIds(List.of(9L));
+    }
+
+    @Test
+    void deleteUsers_withoutIdsOrFilter_throwsException() {
+        // Act & Assert
+        assertThrows(InvalidArgumentException.class, () -> userService.deleteUsers(null, null, LocalDate.of(2000, 1, 1)));
+        assertThrows(InvalidArgumentException.class, () -> userService.deleteUsers(List.of(1L), LocalDate.of(2000, 1, 1), LocalDate.of(2001, 1, 1)));
+        verifyNoInteractions(userRepository);
+    }
+
     @Test
     void updateUser_validUser() {
         // Arrange
         long id = 1;
 
-        User userInDB = new User(
-                id, "test@example.com", "Name", "Lastname",
-                LocalDate.of(2000, 1, 1), "Address", "132456789"
-        );
-
         User toUpdate = new User(
                 null, "test-update@example.com", "Name-update", "Lastname-update",
                 LocalDate.of(2000, 1, 5), "Address-update", "1324567890"
@@ -248,17 +658,19 @@ class UserServiceImplTest {
                 LocalDate.of(2000, 1, 5), "Address-update", "1324567890"
         );
 
-        when(userRepository.findById(eq(id))).thenReturn(Optional.of(userInDB));
-        when(userRepository.save(any(User.class))).thenReturn(resultUser);
+        when(userRepository.updateProperties(eq(id), anyMap(), isNull())).thenReturn(Optional.of(resultUser));
 
         // Act
-        User updated = userService.updateUser(id, toUpdate);
+        User updated = userService.updateUser(id, toUpdate, null);
 
         // Assert
         assertEquals(resultUser, updated);
 
-        verify(userRepository, times(1)).findById(any(Long.class));
-        verify(userRepository, times(1)).save(any(User.class));
+        verify(userRepository, times(1)).updateProperties(eq(id), argThat(properties ->
+                properties.size() == 6 && "test-update@example.com".equals(properties.get("email"))
+        ), isNull());
+        verify(userRepository, never()).findById(any(Long.class));
+        verify(userRepository, never()).save(any(User.class));
     }
 
     @Test
@@ -271,18 +683,18 @@ class UserServiceImplTest {
                 LocalDate.of(2000, 1, 5), "Address-update", "1324567890"
         );
 
-        when(userRepository.findById(eq(id))).thenReturn(Optional.empty());
+        when(userRepository.updateProperties(eq(id), anyMap(), isNull())).thenReturn(Optional.empty());
 
         // Act
         NotFoundException exception = assertThrows(
                 NotFoundException.class,
-                () -> userService.updateUser(id, toUpdate)
+                () -> userService.updateUser(id, toUpdate, null)
         );
 
         // Assert
         assertEquals("User with id = " + id + " does not exist", exception.getMessage());
 
-        verify(userRepository, times(1)).findById(any(Long.class));
+        verify(userRepository, times(1)).updateProperties(eq(id), anyMap(), isNull());
     }
 
     @Test
@@ -290,11 +702,6 @@ class UserServiceImplTest {
         // Arrange
         long id = 1;
 
-        User userInDB = new User(
-                id, "test@example.com", "Name", "Lastname",
-                LocalDate.of(2000, 1, 1), "Address", "132456789"
-        );
-
         User toUpdate = new User(
                 null, "test-update@example.com", "Name-update", "Lastname-update",
                 LocalDate.of(2000, 1, 5), "Address-update", "1324567890"
@@ -306,16 +713,15 @@ class UserServiceImplTest {
         );
 
         // Act
-        when(userRepository.findById(eq(id))).thenReturn(Optional.of(userInDB));
-        when(userRepository.save(any(User.class))).thenReturn(resultUser);
+        when(userRepository.updateProperties(eq(id), anyMap(), isNull())).thenReturn(Optional.of(resultUser));
 
-        User updated = userService.partiallyUpdateUser(id, toUpdate);
+        User updated = userService.partiallyUpdateUser(id, toUpdate, null);
 
         // Assert
         assertEquals(resultUser, updated);
 
-        verify(userRepository, times(1)).findById(any(Long.class));
-        verify(userRepository, times(1)).save(any(User.class));
+        verify(userRepository, times(1)).updateProperties(eq(id), argThat(properties -> properties.size() == 6), isNull());
+        verify(userRepository, never()).findById(any(Long.class));
     }
 
     @Test
@@ -338,17 +744,15 @@ class UserServiceImplTest {
                 LocalDate.of(2000, 1, 1), "Address", "132456789"
         );
 
-        when(userRepository.findById(eq(id))).thenReturn(Optional.of(userInDB));
-        when(userRepository.save(any(User.class))).thenReturn(resultUser);
+        when(userRepository.updateProperties(eq(id), anyMap(), isNull())).thenReturn(Optional.of(userInDB));
 
         // Act
-        User updated = userService.partiallyUpdateUser(id, toUpdate);
+        User updated = userService.partiallyUpdateUser(id, toUpdate, null);
 
         // Assert
         assertEquals(resultUser, updated);
 
-        verify(userRepository, times(1)).findById(any(Long.class));
-        verify(userRepository, times(1)).save(any(User.class));
+        verify(userRepository, times(1)).updateProperties(eq(id), argThat(Map::isEmpty), isNull());
     }
 
     @Test
@@ -361,18 +765,138 @@ class UserServiceImplTest {
                 LocalDate.of(2000, 1, 5), "Address-update", "1324567890"
         );
 
-        when(userRepository.findById(eq(id))).thenReturn(Optional.empty());
+        when(userRepository.updateProperties(eq(id), anyMap(), isNull())).thenReturn(Optional.empty());
 
         // Act
         NotFoundException exception = assertThrows(
                 NotFoundException.class,
-                () -> userService.partiallyUpdateUser(id, toUpdate)
+                () -> userService.partiallyUpdateUser(id, toUpdate, null)
         );
 
         // Assert
         assertEquals("User with id = " + id + " does not exist", exception.getMessage());
 
-        verify(userRepository, times(1)).findById(any(Long.class));
+        verify(userRepository, times(1)).updateProperties(eq(id), anyMap(), isNull());
+    }
+
+    @Test
+    void partiallyUpdateUser_onlyPresentFieldsValidatedAndWritten() {
+        // Arrange
+        long id = 1;
+
+        User toUpdate = new User(
+                null, "test-update@example.com", null, null,
+                null, null, null
+        );
+
+        User resultUser = new User(
+                id, "test-update@example.com", "Name", "Lastname",
+                LocalDate.of(2000, 1, 1), "Address", "132456789"
+        );
+
+        when(userRepository.updateProperties(eq(id), anyMap(), isNull())).thenReturn(Optional.of(resultUser));
+
+        // Act
+        User updated = userService.partiallyUpdateUser(id, toUpdate, null);
+
+        // Assert
+        assertEquals(resultUser, updated);
+
+        verify(userRepository, times(1)).updateProperties(id, Map.of("email", "test-update@example.com"), null);
+    }
+
+    @Test
+    void partiallyUpdateUser_blankField_keepsValidationMessages() {
+        // Arrange
+        User toUpdate = new User(
+                null, "test@@example.com", "", null,
+                LocalDate.of(2020, 1, 1), null, null
+        );
+
+        // Act
+        InvalidArgumentException exception = assertThrows(
+                InvalidArgumentException.class,
+                () -> userService.partiallyUpdateUser(1L, toUpdate, null)
+        );
+
+        // Assert
+        assertThat(exception.getMessages()).containsExactly(
+                "Invalid email.",
+                "'firstname' is a required field.",
+                "Invalid birthdate. Value must be earlier than current date and the user must be at least " + allowedAge + " years old."
+        );
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void updateUser_emailOfAnotherUser_rejectedWithoutUpdate() {
+        // Arrange
+        User toUpdate = new User(
+                null, "taken@example.com", "Name", "Lastname",
+                LocalDate.of(2000, 1, 1), null, null
+        );
+
+        when(userRepository.existsByEmailAndIdNot("taken@example.com", 1L)).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(AlreadyExistException.class, () -> userService.updateUser(1L, toUpdate, null));
+        verify(userRepository, never()).updateProperties(anyLong(), anyMap(), any());
+    }
+
+    @Test
+    void updateUser_versionMismatch() {
+        // Arrange
+        long id = 1;
+
+        User toUpdate = new User(
+                null, "test-update@example.com", "Name", "Lastname",
+                LocalDate.of(2000, 1, 1), null, null
+        );
+
+        when(userRepository.updateProperties(eq(id), anyMap(), eq(3L))).thenReturn(Optional.empty());
+        when(userRepository.existsById(id)).thenReturn(true);
+
+        // Act
+        PreconditionFailedException exception = assertThrows(
+                PreconditionFailedException.class,
+                () -> userService.updateUser(id, toUpdate, 3L)
+        );
+
+        // Assert
+        assertEquals(ETags.MISMATCH_MESSAGE, exception.getMessage());
+        verify(userRepository, times(1)).existsById(id);
+    }
+
+    @Test
+    void partiallyUpdateUser_expectedVersion_userNotFound() {
+        // Arrange
+        long id = -1;
+
+        User toUpdate = new User(
+                null, null, "Name", null,
+                null, null, null
+        );
+
+        when(userRepository.updateProperties(eq(id), anyMap(), eq(3L))).thenReturn(Optional.empty());
+        when(userRepository.existsById(id)).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(NotFoundException.class, () -> userService.partiallyUpdateUser(id, toUpdate, 3L));
+    }
+
+    @Test
+    void updateUser_emailTaken() {
+        // Arrange
+        User toUpdate = new User(
+                null, "taken@example.com", "Name", "Lastname",
+                LocalDate.of(2000, 1, 1), null, null
+        );
+
+        when(userRepository.updateProperties(eq(1L), anyMap(), isNull()))
+                .thenThrow(new DataIntegrityViolationException(""));
+
+        // Act & Assert
+        assertThrows(AlreadyExistException.class, () -> userService.updateUser(1L, toUpdate, null));
     }
 
     @SuppressWarnings({"unchecked", "SuspiciousMethodCalls"})
@@ -391,7 +915,7 @@ class UserServiceImplTest {
                 .thenReturn(userPage);
 
         // Act
-        ResponseEntity<?> response = userService.getUsersWithPagination(page, size, null, null);
+        ResponseEntity<?> response = userService.getUsersWithPagination(page, size, UserFilter.birthdate(null, null), CountMode.EXACT, null);
         PaginationResponse paginationResponse = (PaginationResponse) response.getBody();
 
         // Assert
@@ -418,7 +942,7 @@ class UserServiceImplTest {
 
         // Act & Assert
         assertThrows(InvalidArgumentException.class,
-                () -> userService.getUsersWithPagination(0, 10, from, to));
+                () -> userService.getUsersWithPagination(0, 10, UserFilter.birthdate(from, to), CountMode.EXACT, null));
     }
 
     @Test
@@ -436,7 +960,7 @@ class UserServiceImplTest {
         when(userRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(mockedPage);
 
         // Act
-        ResponseEntity<?> responseEntity = userService.getUsersWithPagination(0, 10, from, to);
+        ResponseEntity<?> responseEntity = userService.getUsersWithPagination(0, 10, UserFilter.birthdate(from, to), CountMode.EXACT, null);
 
         // Assert
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
@@ -456,7 +980,7 @@ class UserServiceImplTest {
         when(userRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(mockedPage);
 
         // Act
-        ResponseEntity<?> responseEntity = userService.getUsersWithPagination(0, 10, from, to);
+        ResponseEntity<?> responseEntity = userService.getUsersWithPagination(0, 10, UserFilter.birthdate(from, to), CountMode.EXACT, null);
 
         // Assert
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
@@ -476,13 +1000,320 @@ class UserServiceImplTest {
         when(userRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(mockedPage);
 
         // Act
-        ResponseEntity<?> responseEntity = userService.getUsersWithPagination(0, 10, from, to);
+        ResponseEntity<?> responseEntity = userService.getUsersWithPagination(0, 10, UserFilter.birthdate(from, to), CountMode.EXACT, null);
 
         // Assert
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
         assertNotNull(responseEntity.getBody());
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    void getUsersWithPagination_countNone_skipsCountQuery() {
+        // Arrange
+        int page = 1;
+        int size = 5;
+        Pageable pageable = PageRequest.of(page, size);
+
+        when(userRepository.findSlice(any(Specification.class), eq(pageable)))
+                .thenReturn(new SliceImpl<>(getUserList().subList(0, size), pageable, true));
+
+        // Act
+        ResponseEntity<?> response = userService.getUsersWithPagination(page, size, UserFilter.NONE, CountMode.NONE, null);
+        PaginationResponse paginationResponse = (PaginationResponse) response.getBody();
+
+        // Assert
+        assertNotNull(paginationResponse);
+        assertEquals(CountMode.NONE, paginationResponse.getTotalElementsType());
+        assertFalse(paginationResponse.getPagination().containsKey("total_elements"));
+        assertThat(paginationResponse.getLinks().get("next")).contains("page=2").contains("count=none");
+        assertThat(paginationResponse.getLinks().get("prev")).contains("page=0");
+
+        verify(userRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+        verify(userRepository, never()).count(any(Specification.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void getUsersWithPagination_countEstimate_usesPlannerStatistics() {
+        // Arrange
+        when(userRepository.findSlice(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(getUserList()));
+        when(userRepository.estimateCount()).thenReturn(OptionalLong.of(1000L));
+
+        // Act
+        ResponseEntity<?> response = userService.getUsersWithPagination(0, 20, UserFilter.NONE, CountMode.ESTIMATE, null);
+        PaginationResponse paginationResponse = (PaginationResponse) response.getBody();
+
+        // Assert
+        assertNotNull(paginationResponse);
+        assertEquals(CountMode.ESTIMATE, paginationResponse.getTotalElementsType());
+        assertEquals(1000L, paginationResponse.getPagination().get("total_elements"));
+
+        verify(userRepository, never()).count(any(Specification.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void getUsersWithPagination_countEstimateWithFilter_fallsBackToExactCount() {
+        // Arrange
+        LocalDate from = LocalDate.of(2000, 1, 1);
+        LocalDate to = LocalDate.of(2000, 6, 1);
+
+        when(userRepository.findSlice(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(getUserList()));
+        when(userRepository.count(any(Specification.class))).thenReturn(9L);
+
+        // Act
+        ResponseEntity<?> response = userService.getUsersWithPagination(0, 20, UserFilter.birthdate(from, to), CountMode.ESTIMATE, null);
+        PaginationResponse paginationResponse = (PaginationResponse) response.getBody();
+
+        // Assert
+        assertNotNull(paginationResponse);
+        assertEquals(CountMode.EXACT, paginationResponse.getTotalElementsType());
+        assertEquals(9L, paginationResponse.getPagination().get("total_elements"));
+
+        verify(userRepository, never()).estimateCount();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void exportUsers_ndjson_writesOneUserPerLine() throws Exception {
+        // Arrange
+        List<User> userList = getUserList();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        when(userRepository.streamAll(any(Specification.class), anyInt())).thenReturn(userList.stream());
+
+        // Act
+        userService.exportUsers(null, null, DataFormat.NDJSON).writeTo(out);
+
+        // Assert
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(userList.size(), lines.length);
+        assertEquals(userList.get(0), objectMapper.readValue(lines[0], User.class));
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void exportUsers_csv_escapesValues() throws Exception {
+        // Arrange
+        User user = new User(
+                1L, "test@example.com", "Name", "Last, \"name\"",
+                LocalDate.of(2000, 1, 1), null, "132456789"
+        );
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        when(userRepository.streamAll(any(Specification.class), anyInt())).thenReturn(Stream.of(user));
+
+        // Act
+        userService.exportUsers(null, null, DataFormat.CSV).writeTo(out);
+
+        // Assert
+        assertEquals(
+                "id,email,firstname,lastname,birthdate,address,phoneNumber\r\n" +
+                        "1,test@example.com,Name,\"Last, \"\"name\"\"\",2000-01-01,,132456789\r\n",
+                out.toString(StandardCharsets.UTF_8)
+        );
+    }
+
+    @Test
+    void exportUsers_invalidDateRange_throwsBeforeStreaming() {
+        // Arrange
+        LocalDate from = LocalDate.of(2024, 4, 1);
+        LocalDate to = LocalDate.of(2024, 3, 1);
+
+        // Act & Assert
+        assertThrows(InvalidArgumentException.class,
+                () -> userService.exportUsers(from, to, DataFormat.NDJSON));
+        verifyNoInteractions(userRepository);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void getUsersWithCursor_moreRowsThanSize_returnsNextCursor() {
+        // Arrange
+        int size = 5;
+        List<User> userList = getUserList();
+
+        when(userRepository.findBy(any(Specification.class), any(Function.class)))
+                .thenReturn(userList.subList(0, size + 1));
+
+        // Act
+        ResponseEntity<?> response = userService.getUsersWithCursor("", size, UserFilter.NONE, null);
+        PaginationResponse paginationResponse = (PaginationResponse) response.getBody();
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(paginationResponse);
+        assertEquals(size, paginationResponse.getData().size());
+        assertEquals((long) size, paginationResponse.getPagination().get("size"));
+
+        String expectedCursor = UserCursor.of(userList.get(size - 1)).encode();
+        assertThat(paginationResponse.getLinks().get("next")).contains("after=" + expectedCursor);
+
+        verify(userRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void getUsersWithCursor_lastPage_returnsNoNextLink() {
+        // Arrange
+        List<User> userList = getUserList();
+        String after = UserCursor.of(userList.get(0)).encode();
+
+        when(userRepository.findBy(any(Specification.class), any(Function.class)))
+                .thenReturn(userList.subList(1, userList.size()));
+
+        // Act
+        ResponseEntity<?> response = userService.getUsersWithCursor(after, 20, UserFilter.NONE, null);
+        PaginationResponse paginationResponse = (PaginationResponse) response.getBody();
+
+        // Assert
+        assertNotNull(paginationResponse);
+        assertEquals(userList.size() - 1, paginationResponse.getData().size());
+        assertTrue(paginationResponse.getLinks().isEmpty());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void getUsersWithPagination_lastnameAndDomainFilter_keptInLinksAndCountedExactly() {
+        // Arrange
+        UserFilter filter = UserFilter.of(null, null, "O'Neil", "example.com");
+
+        when(userRepository.findSlice(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(getUserList(), PageRequest.of(1, 2), true));
+        when(userRepository.count(any(Specification.class))).thenReturn(9L);
+
+        // Act
+        ResponseEntity<?> response = userService.getUsersWithPagination(1, 2, filter, CountMode.ESTIMATE, null);
+        PaginationResponse paginationResponse = (PaginationResponse) response.getBody();
+
+        // Assert
+        assertNotNull(paginationResponse);
+        assertEquals(CountMode.EXACT, paginationResponse.getTotalElementsType());
+        assertThat(paginationResponse.getLinks().get("next"))
+                .endsWith("?size=2&lastname=O%27Neil&domain=example.com&count=estimate&page=2");
+
+        verify(userRepository, never()).estimateCount();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void getUsersWithPagination_withFields_selectsOnlyThoseColumns() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 2);
+        List<String> fields = List.of("id", "email");
+
+        List<Map<String, Object>> rows = List.of(
+                new LinkedHashMap<>(Map.of("id", 1L)),
+                new LinkedHashMap<>(Map.of("id", 2L))
+        );
+
+        when(userRepository.findSlice(any(Specification.class), eq(pageable), eq(fields)))
+                .thenReturn(new SliceImpl<>(rows, pageable, true));
+        when(userRepository.count(any(Specification.class))).thenReturn(10L);
+
+        // Act
+        ResponseEntity<?> response = userService.getUsersWithPagination(0, 2, UserFilter.NONE, CountMode.EXACT, fields);
+        PaginationResponse paginationResponse = (PaginationResponse) response.getBody();
+
+        // Assert
+        assertNotNull(paginationResponse);
+        assertEquals(rows, paginationResponse.getData());
+        assertEquals(10L, paginationResponse.getPagination().get("total_elements"));
+        assertThat(paginationResponse.getLinks().get("next")).endsWith("?size=2&fields=id,email&page=1");
+
+        verify(userRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+        verify(userRepository, never()).findSlice(any(Specification.class), any(Pageable.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void getUsersWithCursor_withFields_selectsKeysetColumnsButReturnsOnlyRequested() {
+        // Arrange
+        LocalDate birthdate = LocalDate.of(2000, 1, 1);
+        Pageable pageable = PageRequest.of(0, 2, Sort.by("birthdate", "id"));
+
+        List<Map<String, Object>> rows = List.of(
+                new LinkedHashMap<>(Map.of("id", 1L, "email", "a@example.com", "birthdate", birthdate)),
+                new LinkedHashMap<>(Map.of("id", 2L, "email", "b@example.com", "birthdate", birthdate))
+        );
+
+        when(userRepository.findSlice(any(Specification.class), eq(pageable), eq(List.of("id", "email", "birthdate"))))
+                .thenReturn(new SliceImpl<>(rows, pageable, true));
+
+        // Act
+        ResponseEntity<?> response = userService.getUsersWithCursor("", 2, UserFilter.NONE, List.of("email"));
+        PaginationResponse paginationResponse = (PaginationResponse) response.getBody();
+
+        // Assert
+        assertNotNull(paginationResponse);
+        assertEquals(
+                List.of(Map.of("email", "a@example.com"), Map.of("email", "b@example.com")),
+                paginationResponse.getData()
+        );
+
+        String expectedCursor = new UserCursor(birthdate, 2L).encode();
+        assertThat(paginationResponse.getLinks().get("next"))
+                .endsWith("?after=" + expectedCursor + "&size=2&fields=email");
+
+        verify(userRepository, never()).findBy(any(Specification.class), any(Function.class));
+    }
+
+    @Test
+    void searchUsers_returnsUsersInRankOrder_skippingDeletedOnes() {
+        // Arrange
+        User first = new User(2L, "b@example.com", "Name", "Lastname", LocalDate.of(2000, 1, 1), null, null);
+        User second = new User(1L, "a@example.com", "Name", "Lastname", LocalDate.of(2000, 1, 1), null, null);
+
+        when(searchIndex.search("lastnme", 20)).thenReturn(List.of(2L, 3L, 1L));
+        when(userRepository.findAllById(List.of(2L, 3L, 1L))).thenReturn(List.of(second, first));
+
+        // Act
+        ResponseEntity<?> response = userService.searchUsers("lastnme", 20);
+        SearchResponse searchResponse = (SearchResponse) response.getBody();
+
+        // Assert
+        assertNotNull(searchResponse);
+        assertEquals("lastnme", searchResponse.getQuery());
+        assertEquals(List.of(first, second), searchResponse.getData());
+    }
+
+    @Test
+    void searchUsers_blankQuery_throwsException() {
+        assertThrows(InvalidArgumentException.class, () -> userService.searchUsers(" ", 20));
+        assertThrows(InvalidArgumentException.class, () -> userService.searchUsers("name", 0));
+
+        verifyNoInteractions(searchIndex);
+    }
+
+    @Test
+    void getUsersWithCursor_malformedCursor_throwsException() {
+        // Act
+        InvalidArgumentException exception = assertThrows(
+                InvalidArgumentException.class,
+                () -> userService.getUsersWithCursor("not-a-cursor", 20, UserFilter.NONE, null)
+        );
+
+        // Assert
+        assertThat(exception.getMessages()).contains("Invalid 'after' cursor.");
+    }
+
+    @Test
+    void userCursor_encodeDecode_roundTrip() {
+        // Arrange
+        UserCursor cursor = new UserCursor(LocalDate.of(2000, 1, 1), 42L);
+
+        // Act
+        UserCursor decoded = UserCursor.decode(cursor.encode());
+
+        // Assert
+        assertEquals(cursor.getBirthdate(), decoded.getBirthdate());
+        assertEquals(cursor.getId(), decoded.getId());
+    }
+
     private List<User> getUserList() {
         return IntStream.range(1, 10).mapToObj(i -> new User(
                 (long) i, i + "test@example.com", i + "Name", i + "Lastname",
@@ -0,0 +1,55 @@
+package com.midel.utils;
+
+import com.midel.entity.User;
+import com.midel.exception.InvalidArgumentException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserFieldsTest {
+
+    @Test
+    void parse_absentOrBlank_meansAllFields() {
+        assertNull(UserFields.parse(null));
+        assertNull(UserFields.parse(" "));
+    }
+
+    @Test
+    void parse_trimsDeduplicatesAndKeepsSerializationOrder() {
+        assertEquals(List.of("id", "email", "phoneNumber"), UserFields.parse("phoneNumber, email,id,email"));
+    }
+
+    @Test
+    void parse_unknownField_throwsException() {
+        InvalidArgumentException exception = assertThrows(
+                InvalidArgumentException.class,
+                () -> UserFields.parse("id,version")
+        );
+
+        assertTrue(exception.getMessage().startsWith("Unknown field 'version'."));
+    }
+
+    @Test
+    void with_addsRequiredFieldsInSerializationOrder() {
+        assertEquals(List.of("id", "email", "birthdate"), UserFields.with(List.of("email"), "id", "birthdate"));
+    }
+
+    @Test
+    void of_picksRequestedProperties() {
+        User user = new User(
+                1L, "test@example.com", "Name", "Lastname",
+                LocalDate.of(2000, 1, 1), null, "132456789"
+        );
+
+        Map<String, Object> values = UserFields.of(user, List.of("id", "address", "phoneNumber"));
+
+        assertEquals(List.of("id", "address", "phoneNumber"), List.copyOf(values.keySet()));
+        assertEquals(1L, values.get("id"));
+        assertNull(values.get("address"));
+        assertEquals("132456789", values.get("phoneNumber"));
+    }
+}
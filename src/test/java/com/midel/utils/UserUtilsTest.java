@@ -0,0 +1,106 @@
+package com.midel.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserUtilsTest {
+
+    /**
+     * The regex {@link UserUtils#isEmailValid(String)} replaced, used as the reference for the accepted language.
+     */
+    private static final Pattern EMAIL_PATTERN = Pattern.compile(
+            "^[_A-Za-z0-9-]+(\\.[_A-Za-z0-9-]+)*@[A-Za-z0-9-]+(\\.[A-Za-z0-9]+)*(\\.[A-Za-z]{2,})$"
+    );
+
+    private static final char[] ALPHABET = {'a', 'Z', '0', '_', '-', '.', '@'};
+
+    private static final char[] NOISE = {'a', 'B', '7', '_', '-', '.', '@', ' ', '\n', '+', 'é', '\u0000'};
+
+    @Test
+    void isEmailValid_examples() {
+        assertTrue(UserUtils.isEmailValid("test@example.com"));
+        assertTrue(UserUtils.isEmailValid("first.last_name-1@sub-domain.example.co"));
+        assertTrue(UserUtils.isEmailValid("a@b-1.c2.de"));
+
+        assertFalse(UserUtils.isEmailValid(""));
+        assertFalse(UserUtils.isEmailValid("test@@example.com"));
+        assertFalse(UserUtils.isEmailValid(".test@example.com"));
+        assertFalse(UserUtils.isEmailValid("test.@example.com"));
+        assertFalse(UserUtils.isEmailValid("test@example"));
+        assertFalse(UserUtils.isEmailValid("test@example.c"));
+        assertFalse(UserUtils.isEmailValid("test@example.c0m"));
+        assertFalse(UserUtils.isEmailValid("test@sub-1.ex-ample.com"));
+        assertFalse(UserUtils.isEmailValid("test@example..com"));
+        assertFalse(UserUtils.isEmailValid("test@example.com\n"));
+    }
+
+    @Test
+    void isEmailValid_sameAsRegex_forAllShortStrings() {
+        // Every string of up to 6 characters over the characters that matter to the grammar.
+        for (int length = 0; length <= 6; length++) {
+            char[] chars = new char[length];
+            int combinations = (int) Math.pow(ALPHABET.length, length);
+
+            for (int n = 0; n < combinations; n++) {
+                int rest = n;
+                for (int i = 0; i < length; i++) {
+                    chars[i] = ALPHABET[rest % ALPHABET.length];
+                    rest /= ALPHABET.length;
+                }
+                assertSameAsRegex(new String(chars));
+            }
+        }
+    }
+
+    @Test
+    void isEmailValid_sameAsRegex_forMutatedEmails() {
+        Random random = new Random(42);
+        String[] seeds = {"john.doe@mail.example.com", "a_b-c@x-y.z1.org", "user@host.io"};
+
+        for (int n = 0; n < 200_000; n++) {
+            StringBuilder email = new StringBuilder(seeds[random.nextInt(seeds.length)]);
+
+            int mutations = 1 + random.nextInt(3);
+            for (int m = 0; m < mutations; m++) {
+                int position = random.nextInt(email.length() + 1);
+                char c = NOISE[random.nextInt(NOISE.length)];
+
+                switch (random.nextInt(3)) {
+                    case 0 -> email.insert(position, c);
+                    case 1 -> {
+                        if (position < email.length()) {
+                            email.setCharAt(position, c);
+                        }
+                    }
+                    default -> {
+                        if (position < email.length()) {
+                            email.deleteCharAt(position);
+                        }
+                    }
+                }
+            }
+
+            assertSameAsRegex(email.toString());
+        }
+    }
+
+    @Test
+    void isEmailValid_longNearMiss_rejected() {
+        String email = "a.".repeat(10_000) + "a@" + "b1.".repeat(30_000) + "c";
+
+        assertTimeoutPreemptively(Duration.ofSeconds(1), () -> assertFalse(UserUtils.isEmailValid(email)));
+    }
+
+    private static void assertSameAsRegex(String email) {
+        assertEquals(
+                EMAIL_PATTERN.matcher(email).matches(),
+                UserUtils.isEmailValid(email),
+                () -> "Mismatch for '" + email + "'"
+        );
+    }
+}
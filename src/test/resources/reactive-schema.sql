@@ -0,0 +1,17 @@
+-- The schema Hibernate generates for com.midel.entity.User, for the reactive variant which does not create it.
+CREATE TABLE IF NOT EXISTS _user (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email VARCHAR(255) NOT NULL UNIQUE,
+    firstname VARCHAR(255) NOT NULL,
+    lastname VARCHAR(255) NOT NULL,
+    birth_date DATE NOT NULL,
+    address VARCHAR(255),
+    phone_number VARCHAR(255),
+    version BIGINT DEFAULT 0 NOT NULL,
+    lastname_key VARCHAR(255),
+    email_domain VARCHAR(255)
+);
+
+CREATE INDEX IF NOT EXISTS idx_user_birth_date_id ON _user (birth_date, id);
+CREATE INDEX IF NOT EXISTS idx_user_lastname_key ON _user (lastname_key);
+CREATE INDEX IF NOT EXISTS idx_user_email_domain ON _user (email_domain);